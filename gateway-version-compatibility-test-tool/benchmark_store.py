@@ -0,0 +1,280 @@
+#!/usr/bin/env python3
+"""
+Benchmark Result Store
+Keeps the structured JSON results written by the AdvancedKafkaTest benchmarks in a local SQLite
+database and flags statistically significant regressions against a stored baseline.
+"""
+
+import argparse
+import glob
+import json
+import math
+import os
+import sqlite3
+import statistics
+import sys
+
+DEFAULT_DB = "benchmark-results.db"
+
+# Metric name suffixes where a larger value is better; every other metric is lower-is-better
+HIGHER_IS_BETTER = ("_per_sec", "_mbps", "_hit_ratio")
+# Sample counts describe the run rather than its performance
+IGNORED_SUFFIXES = (".count",)
+# Not gated: harness.* describes the load generator, not the gateway, and added_* metrics are
+# differences between two measurements of the same run, which sit near zero and flip sign
+UNGATED_PREFIXES = ("harness.",)
+UNGATED_LEAF_PREFIXES = ("added_",)
+# Smallest worsening that counts, by unit, and the least spread assumed for the z-score. Without
+# it a baseline of zeros (failures, GC counts) or with no spread makes any change infinitely worse.
+ABSOLUTE_FLOORS = (("_cores", 0.05), ("_ratio", 0.05), ("_share", 0.05), ("_ms", 1.0), ("_us_per_record", 1.0))
+DEFAULT_FLOOR = 1.0
+# Baseline samples needed before a metric is gated; fewer cannot tell a regression from noise
+MIN_SAMPLES = 3
+
+SCHEMA = """
+CREATE TABLE IF NOT EXISTS runs (
+  id INTEGER PRIMARY KEY AUTOINCREMENT,
+  scenario TEXT NOT NULL,
+  timestamp TEXT NOT NULL,
+  client_version TEXT,
+  server_version TEXT,
+  gateway_image TEXT,
+  parameters TEXT NOT NULL,
+  source TEXT NOT NULL UNIQUE,
+  baseline INTEGER NOT NULL DEFAULT 0
+);
+CREATE TABLE IF NOT EXISTS metrics (
+  run_id INTEGER NOT NULL REFERENCES runs(id),
+  kind TEXT NOT NULL,
+  name TEXT NOT NULL,
+  value REAL,
+  PRIMARY KEY (run_id, kind, name)
+);
+"""
+
+
+class BenchmarkStore:
+  def __init__(self, db_path=DEFAULT_DB):
+    self.db_path = db_path
+    self.conn = sqlite3.connect(db_path)
+    self.conn.row_factory = sqlite3.Row
+    self.conn.executescript(SCHEMA)
+
+  def close(self):
+    self.conn.close()
+
+  def ingest_directory(self, results_dir):
+    """Load every benchmark JSON file under a directory, skipping files already stored"""
+    files = sorted(glob.glob(os.path.join(results_dir, "**", "*.json"), recursive=True))
+    run_ids = []
+    for path in files:
+      run_id = self.ingest_file(path)
+      if run_id is not None:
+        run_ids.append(run_id)
+    self.conn.commit()
+    print(f"📥 Stored {len(run_ids)} new benchmark runs from {len(files)} files in {self.db_path}")
+    return run_ids
+
+  def ingest_file(self, path):
+    try:
+      with open(path, 'r') as f:
+        result = json.load(f)
+    except (OSError, ValueError) as e:
+      print(f"⚠️ Skipping {path}: {e}")
+      return None
+    if "scenario" not in result or "metrics" not in result:
+      return None
+
+    source = os.path.abspath(path)
+    if self.conn.execute("SELECT 1 FROM runs WHERE source = ?", (source,)).fetchone():
+      return None
+
+    context = result.get("context", {})
+    cursor = self.conn.execute(
+        "INSERT INTO runs (scenario, timestamp, client_version, server_version, gateway_image, parameters, source)"
+        " VALUES (?, ?, ?, ?, ?, ?, ?)",
+        (result["scenario"], result.get("timestamp", ""), context.get("client_version"),
+         context.get("server_version"), context.get("gateway_image"),
+         json.dumps(result.get("parameters", {}), sort_keys=True), source))
+    run_id = cursor.lastrowid
+    # Only "metrics" are compared; "details" are too noisy to gate on and kept for history only
+    for kind in ("metrics", "gateway", "details"):
+      for name, value in result.get(kind, {}).items():
+        self.conn.execute("INSERT INTO metrics (run_id, kind, name, value) VALUES (?, ?, ?, ?)",
+                          (run_id, kind, name, value))
+    return run_id
+
+  def mark_baseline(self, run_ids, clear_existing=True):
+    """Pin runs as the baseline for their scenario, parameters and versions"""
+    for run_id in run_ids:
+      run = self._run(run_id)
+      if run is None:
+        print(f"⚠️ No run with id {run_id}")
+        continue
+      if clear_existing:
+        self.conn.execute(
+            "UPDATE runs SET baseline = 0 WHERE scenario = ? AND parameters = ?"
+            " AND client_version IS ? AND server_version IS ?",
+            (run["scenario"], run["parameters"], run["client_version"], run["server_version"]))
+        clear_existing = False
+      self.conn.execute("UPDATE runs SET baseline = 1 WHERE id = ?", (run_id,))
+      print(f"📌 Run {run_id} ({run['scenario']}, {run['timestamp']}) marked as baseline")
+    self.conn.commit()
+
+  def baseline_runs(self, run, history=5):
+    """Pinned baseline runs if any exist, otherwise the most recent comparable earlier runs"""
+    query = ("SELECT * FROM runs WHERE scenario = ? AND parameters = ? AND client_version IS ?"
+             " AND server_version IS ? AND id != ?")
+    args = (run["scenario"], run["parameters"], run["client_version"], run["server_version"], run["id"])
+    pinned = self.conn.execute(query + " AND baseline = 1", args).fetchall()
+    if pinned:
+      return [self._row(row) for row in pinned]
+    recent = self.conn.execute(query + " AND id < ? ORDER BY id DESC LIMIT ?",
+                               args + (run["id"], history)).fetchall()
+    return [self._row(row) for row in recent]
+
+  def compare(self, run_ids, threshold=0.10, z_threshold=3.0, history=5, min_samples=MIN_SAMPLES):
+    """Compare each run to its baseline; returns a list of regression descriptions"""
+    regressions = []
+    for run_id in run_ids:
+      run = self._run(run_id)
+      baseline = self.baseline_runs(run, history)
+      label = f"{run['scenario']} (run {run_id}, client {run['client_version']}, server {run['server_version']})"
+      if not baseline:
+        print(f"ℹ️ {label}: no baseline yet, stored as the first comparable run")
+        continue
+
+      if len(baseline) < min_samples:
+        print(f"ℹ️ {label}: {len(baseline)} baseline run(s), {min_samples} needed before metrics are gated")
+        continue
+
+      print(f"🔍 {label} vs {len(baseline)} baseline run(s)")
+      current = self._metrics(run_id, "metrics")
+      history_values = {}
+      for base in baseline:
+        for name, value in self._metrics(base["id"], "metrics").items():
+          history_values.setdefault(name, []).append(value)
+
+      for name, value in sorted(current.items()):
+        verdict = self._judge(name, value, history_values.get(name, []), threshold, z_threshold, min_samples)
+        if verdict:
+          regressions.append(f"{label}: {verdict}")
+          print(f"   ❌ {verdict}")
+    return regressions
+
+  @staticmethod
+  def gated(name):
+    """Whether a metric takes part in regression checks"""
+    leaf = name.rsplit(".", 1)[-1]
+    return not (name.endswith(IGNORED_SUFFIXES) or name.startswith(UNGATED_PREFIXES)
+                or leaf.startswith(UNGATED_LEAF_PREFIXES))
+
+  @staticmethod
+  def floor(name):
+    for suffix, floor in ABSOLUTE_FLOORS:
+      if name.endswith(suffix):
+        return floor
+    return DEFAULT_FLOOR
+
+  @staticmethod
+  def _judge(name, value, samples, threshold, z_threshold, min_samples=MIN_SAMPLES):
+    """A regression must be worse by more than the metric's floor and the relative threshold, and an
+    outlier against at least min_samples baseline values"""
+    if value is None or value < 0 or not BenchmarkStore.gated(name):
+      return None
+    samples = [s for s in samples if s is not None and s >= 0]
+    if len(samples) < max(2, min_samples):
+      return None
+
+    mean = statistics.mean(samples)
+    floor = BenchmarkStore.floor(name)
+    higher_is_better = name.endswith(HIGHER_IS_BETTER)
+    worse_by = (mean - value) if higher_is_better else (value - mean)
+    if worse_by <= floor:
+      return None
+    relative = worse_by / mean if mean > 0 else math.inf
+    if relative <= threshold:
+      return None
+
+    z = worse_by / max(statistics.stdev(samples), floor)
+    if z <= z_threshold:
+      return None
+    worse = "up from zero" if math.isinf(relative) else f"{relative:.1%} worse"
+    return f"{name}: {value:.3f} vs baseline mean {mean:.3f} ({worse}, z={z:.1f})"
+
+  def history(self, scenario, metric=None, limit=20):
+    rows = self.conn.execute(
+        "SELECT * FROM runs WHERE scenario = ? ORDER BY id DESC LIMIT ?", (scenario, limit)).fetchall()
+    for row in reversed(rows):
+      run = self._row(row)
+      marker = "📌" if run["baseline"] else "  "
+      values = self._metrics(run["id"], "metrics")
+      if metric:
+        values = {metric: values.get(metric)}
+      shown = ", ".join(f"{k}={v:.3f}" for k, v in sorted(values.items()) if v is not None)
+      print(f"{marker} {run['id']:>5} {run['timestamp']} client={run['client_version']} "
+            f"server={run['server_version']} {shown}")
+
+  def _run(self, run_id):
+    row = self.conn.execute("SELECT * FROM runs WHERE id = ?", (run_id,)).fetchone()
+    return self._row(row) if row else None
+
+  @staticmethod
+  def _row(row):
+    return dict(row)
+
+  def _metrics(self, run_id, kind):
+    rows = self.conn.execute("SELECT name, value FROM metrics WHERE run_id = ? AND kind = ?", (run_id, kind))
+    return {row["name"]: row["value"] for row in rows}
+
+
+def main():
+  parser = argparse.ArgumentParser(description="Store benchmark results and detect regressions")
+  parser.add_argument("--db", default=DEFAULT_DB, help=f"SQLite database (default: {DEFAULT_DB})")
+  commands = parser.add_subparsers(dest="command", required=True)
+
+  ingest = commands.add_parser("ingest", help="Store benchmark JSON files from a directory")
+  ingest.add_argument("results_dir")
+
+  check = commands.add_parser("check", help="Store results and fail if any regressed against the baseline")
+  check.add_argument("results_dir")
+  check.add_argument("--threshold", type=float, default=0.10,
+                     help="Minimum relative change treated as a regression (default: 0.10)")
+  check.add_argument("--z-threshold", type=float, default=3.0,
+                     help="Minimum z-score against baseline history (default: 3.0)")
+  check.add_argument("--history", type=int, default=5,
+                     help="Earlier runs used as the baseline when none is pinned (default: 5)")
+  check.add_argument("--min-samples", type=int, default=MIN_SAMPLES,
+                     help=f"Baseline runs needed before a metric is gated (default: {MIN_SAMPLES})")
+
+  baseline = commands.add_parser("mark-baseline", help="Pin runs as the baseline for their scenario")
+  baseline.add_argument("run_ids", type=int, nargs="+")
+
+  show = commands.add_parser("history", help="Show recent runs of a scenario")
+  show.add_argument("scenario")
+  show.add_argument("--metric")
+
+  args = parser.parse_args()
+  store = BenchmarkStore(args.db)
+  try:
+    if args.command == "ingest":
+      store.ingest_directory(args.results_dir)
+    elif args.command == "check":
+      run_ids = store.ingest_directory(args.results_dir)
+      regressions = store.compare(run_ids, args.threshold, args.z_threshold, args.history, args.min_samples)
+      if regressions:
+        print(f"\n❌ {len(regressions)} benchmark regression(s) detected:")
+        for regression in regressions:
+          print(f"   {regression}")
+        sys.exit(1)
+      print("✅ No benchmark regressions detected")
+    elif args.command == "mark-baseline":
+      store.mark_baseline(args.run_ids)
+    elif args.command == "history":
+      store.history(args.scenario, args.metric)
+  finally:
+    store.close()
+
+
+if __name__ == "__main__":
+  main()
@@ -5,6 +5,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 // Kafka Clients - Producer
+import org.apache.kafka.clients.producer.Callback;
 import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.ProducerConfig;
@@ -22,6 +23,7 @@ import org.apache.kafka.clients.consumer.OffsetAndMetadata;
 // Kafka Clients - Admin
 import org.apache.kafka.clients.admin.AdminClient;
 import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.AlterConfigOp;
 import org.apache.kafka.clients.admin.AlterConfigsResult;
 import org.apache.kafka.clients.admin.Config;
 import org.apache.kafka.clients.admin.ConfigEntry;
@@ -56,6 +58,7 @@ import org.apache.kafka.streams.errors.StreamsUncaughtExceptionHandler;
 import org.apache.kafka.streams.kstream.KStream;
 
 // Kafka Common
+import org.apache.kafka.clients.CommonClientConfigs;
 import org.apache.kafka.common.Node;
 import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.config.ConfigResource;
@@ -91,7 +94,9 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
@@ -100,9 +105,12 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.extension.ExtendWith;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 /**
  * Advanced Kafka Test Suite for version compatibility testing
@@ -110,12 +118,18 @@ import static org.junit.jupiter.api.Assertions.*;
  * JUnit 5 test suite with comprehensive assertions
  */
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@ExtendWith(GatewayApiUsageExtension.class)
 public class AdvancedKafkaTest {
     
     private static final Logger logger = LoggerFactory.getLogger(AdvancedKafkaTest.class);
     
+    // Unacknowledged records allowed per AsyncSendDriver before send() blocks
+    private static final int SEND_WINDOW = 1000;
+    
     private String bootstrapServers;
     private Properties baseProps;
+    private final Map<String, String> benchmarkParameters = new java.util.TreeMap<>();
+    private final HarnessAllocationMeter harnessAllocation = new HarnessAllocationMeter();
     
     public AdvancedKafkaTest() {
         // Default constructor for JUnit
@@ -135,45 +149,31 @@ public class AdvancedKafkaTest {
         String enableSsl = System.getenv("KAFKA_SSL_ENABLED");
         String saslMechanism = System.getenv("KAFKA_SASL_MECHANISM");
         String saslUsername = System.getenv("KAFKA_SASL_USERNAME");
-        String saslPassword = System.getenv("KAFKA_SASL_PASSWORD");
         
         boolean saslEnabled = "true".equalsIgnoreCase(enableSasl);
         boolean sslEnabled = "true".equalsIgnoreCase(enableSsl);
         
+        // The in-process suite launcher switches routes within one JVM through -Dsecurity.mode
+        String securityMode = System.getProperty("security.mode");
+        if (securityMode != null) {
+            saslEnabled = "sasl".equalsIgnoreCase(securityMode);
+            sslEnabled = "ssl".equalsIgnoreCase(securityMode);
+        }
+        
         if (sslEnabled && !saslEnabled) {
             logger.info("🔒 SSL authentication enabled (no SASL)");
             logger.info("   Bootstrap servers: {}", this.bootstrapServers);
             
-            // Configure security protocol for SSL only
-            this.baseProps.put("security.protocol", "SSL");
-            
-            // SSL configuration for client trust (no client certificate required)
-            this.baseProps.put("ssl.endpoint.identification.algorithm", "");
-            this.baseProps.put("ssl.truststore.location", "/etc/kafka/secrets/kafka.truststore.jks");
-            this.baseProps.put("ssl.truststore.password", "confluent");
+            applySecurityMode(this.baseProps, "ssl");
             
             logger.info("✅ SSL configuration applied to base properties");
         } else if (saslEnabled) {
-            String mechanism = saslMechanism != null ? saslMechanism : "PLAIN";
-            String username = saslUsername != null ? saslUsername : "admin";
-            String password = saslPassword != null ? saslPassword : "admin-secret";
-            
             logger.info("🔐 SASL authentication enabled");
-            logger.info("   Mechanism: {}", mechanism);
-            logger.info("   Username: {}", username);
+            logger.info("   Mechanism: {}", saslMechanism != null ? saslMechanism : "PLAIN");
+            logger.info("   Username: {}", saslUsername != null ? saslUsername : "admin");
             logger.info("   Bootstrap servers: {}", this.bootstrapServers);
             
-            // Configure security protocol for SASL_PLAINTEXT
-            this.baseProps.put("security.protocol", "SASL_PLAINTEXT");
-            this.baseProps.put(SaslConfigs.SASL_MECHANISM, mechanism);
-            
-            // Configure JAAS for PLAIN mechanism
-            if ("PLAIN".equals(mechanism)) {
-                String jaasConfig = String.format(
-                    "org.apache.kafka.common.security.plain.PlainLoginModule required " +
-                    "username=\"%s\" password=\"%s\";", username, password);
-                this.baseProps.put(SaslConfigs.SASL_JAAS_CONFIG, jaasConfig);
-            }
+            applySecurityMode(this.baseProps, "sasl");
             
             logger.info("✅ SASL configuration applied to base properties");
         } else {
@@ -181,6 +181,58 @@ public class AdvancedKafkaTest {
         }
     }
     
+    /**
+     * Applies client security settings for one of the gateway routes' security modes:
+     * "plaintext", "sasl" (SASL_PLAINTEXT, credentials from KAFKA_SASL_* env vars) or "ssl".
+     */
+    private static void applySecurityMode(Properties props, String securityMode) {
+        switch (securityMode.toLowerCase()) {
+            case "ssl":
+                // Configure security protocol for SSL only
+                props.put("security.protocol", "SSL");
+                
+                // SSL configuration for client trust (no client certificate required)
+                props.put("ssl.endpoint.identification.algorithm", "");
+                props.put("ssl.truststore.location", "/etc/kafka/secrets/kafka.truststore.jks");
+                props.put("ssl.truststore.password", "confluent");
+                break;
+            case "sasl":
+                String saslMechanism = System.getenv("KAFKA_SASL_MECHANISM");
+                String saslUsername = System.getenv("KAFKA_SASL_USERNAME");
+                String saslPassword = System.getenv("KAFKA_SASL_PASSWORD");
+                String mechanism = saslMechanism != null ? saslMechanism : "PLAIN";
+                String username = saslUsername != null ? saslUsername : "admin";
+                String password = saslPassword != null ? saslPassword : "admin-secret";
+                
+                // Configure security protocol for SASL_PLAINTEXT
+                props.put("security.protocol", "SASL_PLAINTEXT");
+                props.put(SaslConfigs.SASL_MECHANISM, mechanism);
+                
+                // Configure JAAS for PLAIN mechanism
+                if ("PLAIN".equals(mechanism)) {
+                    String jaasConfig = String.format(
+                        "org.apache.kafka.common.security.plain.PlainLoginModule required " +
+                        "username=\"%s\" password=\"%s\";", username, password);
+                    props.put(SaslConfigs.SASL_JAAS_CONFIG, jaasConfig);
+                }
+                break;
+            case "plaintext":
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown security mode: " + securityMode);
+        }
+    }
+    
+    /**
+     * Client properties for a gateway route other than the one under test, e.g. gateway:19095 with "sasl".
+     */
+    private static Properties routeProps(String routeBootstrapServers, String securityMode) {
+        Properties props = new Properties();
+        props.put(CommonClientConfigs.BOOTSTRAP_SERVERS_CONFIG, routeBootstrapServers);
+        applySecurityMode(props, securityMode);
+        return props;
+    }
+    
     @BeforeEach
     public void setUp() {
         if (this.bootstrapServers == null) {
@@ -211,8 +263,24 @@ public class AdvancedKafkaTest {
             logger.info("  admin          - Test advanced admin operations (configs, ACLs, partitions)");
             logger.info("  consumer       - Test advanced consumer operations (offsets, seek, pause/resume, lag)");
             logger.info("  compatibility  - Run all API compatibility tests");
+            logger.info("  admin-scale    - Benchmark bulk topic create/describe/alter/delete (benchmark.admin.*)");
+            logger.info("  noisy-neighbour - Benchmark victim-route p99 while another route is saturated");
+            logger.info("  restart-recovery - Measure client recovery time across a gateway restart (benchmark.restart.*)");
+            logger.info("  leader-movement - Move partition leaders under load and measure retries and metadata propagation");
+            logger.info("  broker-scaling - Measure aggregate produce/consume throughput across all brokers behind the gateway");
+            logger.info("  client-fleet   - Simulate thousands of low-rate clients and measure gateway cost per connection");
+            logger.info("  workload [file|dir] - Run JSON workload files (default: src/test/resources/workloads)");
+            logger.info("  partition-skew - Compare uniform, Zipfian and hot-key keys per partition and leader");
+            logger.info("  schema-validation - Compare throughput and p99 across gateway schema validation levels");
+            logger.info("  encryption     - Compare field and payload encryption at the gateway against plain records");
+            logger.info("  registry-lookups - Count gateway Schema Registry calls per record, with a fast and a slow registry");
+            logger.info("  auth-swap      - Compare passthrough, SCRAM-swap and mTLS-swap connection setup, throughput and gateway CPU");
+            logger.info("  reauth         - Latency spikes around SASL re-authentication under sustained load");
+            logger.info("  broker-identification - Compare port-based and SNI broker identification over TLS");
+            logger.info("  startup        - Time to /livez, first Metadata and stable p99 after a gateway start (benchmark.startup.*)");
             logger.info("  Note: Use 'mvn test' to run all tests via JUnit");
             logger.info("");
+            logger.info("Security mode (-Dsecurity.mode=plaintext|sasl|ssl) overrides the variables below");
             logger.info("SASL Configuration (Environment Variables):");
             logger.info("  KAFKA_SASL_ENABLED=true     - Enable SASL authentication");
             logger.info("  KAFKA_SASL_MECHANISM=PLAIN  - SASL mechanism (default: PLAIN)");
@@ -281,6 +349,54 @@ public class AdvancedKafkaTest {
                 case "compatibility":
                     suite.runCompatibilityTests();
                     break;
+                case "admin-scale":
+                    suite.testAdminScale();
+                    break;
+                case "noisy-neighbour":
+                    suite.testNoisyNeighbourIsolation();
+                    break;
+                case "restart-recovery":
+                    suite.testGatewayRestartRecovery();
+                    break;
+                case "leader-movement":
+                    suite.testLeaderMovementUnderLoad();
+                    break;
+                case "broker-scaling":
+                    suite.testBrokerScalingThroughput();
+                    break;
+                case "client-fleet":
+                    suite.testClientFleet();
+                    break;
+                case "workload":
+                    if (args.length > 2) {
+                        System.setProperty("benchmark.workload", args[2]);
+                    }
+                    suite.testWorkloadFiles();
+                    break;
+                case "partition-skew":
+                    suite.testPartitionSkew();
+                    break;
+                case "schema-validation":
+                    suite.testSchemaValidation();
+                    break;
+                case "encryption":
+                    suite.testEncryption();
+                    break;
+                case "registry-lookups":
+                    suite.testSchemaRegistryLookups();
+                    break;
+                case "auth-swap":
+                    suite.testAuthSwap();
+                    break;
+                case "reauth":
+                    suite.testReauthLatency();
+                    break;
+                case "broker-identification":
+                    suite.testBrokerIdentification();
+                    break;
+                case "startup":
+                    suite.testGatewayStartup();
+                    break;
                 default:
                     logger.error("❌ Unknown test type: {}", testType);
                     logger.info("💡 Tip: Use 'mvn test' to run all JUnit tests");
@@ -304,13 +420,18 @@ public class AdvancedKafkaTest {
     
     // Cross-version compatibility helper methods using reflection
     private TopicDescription getTopicDescription(DescribeTopicsResult result, String topicName) throws Exception {
+        return getTopicDescriptionFutures(result).get(topicName).get(10, java.util.concurrent.TimeUnit.SECONDS);
+    }
+    
+    private java.util.Map<String, org.apache.kafka.common.KafkaFuture<TopicDescription>> getTopicDescriptionFutures(
+            DescribeTopicsResult result) throws Exception {
         try {
             // Try Kafka 8.0.0+ API first using reflection
             java.lang.reflect.Method topicNameValuesMethod = result.getClass().getMethod("topicNameValues");
             @SuppressWarnings("unchecked")
             java.util.Map<String, org.apache.kafka.common.KafkaFuture<TopicDescription>> futureMap = 
                 (java.util.Map<String, org.apache.kafka.common.KafkaFuture<TopicDescription>>) topicNameValuesMethod.invoke(result);
-            return futureMap.get(topicName).get(10, java.util.concurrent.TimeUnit.SECONDS);
+            return futureMap;
         } catch (NoSuchMethodException | java.lang.reflect.InvocationTargetException e) {
             // Fall back to older API (Kafka < 8.0.0) using reflection as well
             try {
@@ -318,7 +439,7 @@ public class AdvancedKafkaTest {
                 @SuppressWarnings("unchecked")
                 java.util.Map<String, org.apache.kafka.common.KafkaFuture<TopicDescription>> futureMap = 
                     (java.util.Map<String, org.apache.kafka.common.KafkaFuture<TopicDescription>>) valuesMethod.invoke(result);
-                return futureMap.get(topicName).get(10, java.util.concurrent.TimeUnit.SECONDS);
+                return futureMap;
             } catch (NoSuchMethodException ex) {
                 throw new RuntimeException("Neither topicNameValues() nor values() method found on DescribeTopicsResult", ex);
             }
@@ -345,6 +466,16 @@ public class AdvancedKafkaTest {
         }
     }
     
+    // Waits for pipelined sends and fails the test with the first send error, if any
+    private static void assertSendsCompleted(AsyncSendDriver<?, ?> driver, int timeoutSeconds) throws InterruptedException {
+        assertTrue(driver.awaitCompletion(timeoutSeconds, TimeUnit.SECONDS),
+                  "Sends should complete within " + timeoutSeconds + " seconds");
+        if (driver.failed() > 0) {
+            fail("Send failed: " + driver.failures().get(0).getMessage(), driver.failures().get(0));
+        }
+        assertEquals(driver.sent(), driver.acked(), "Every record should be acknowledged");
+    }
+    
     @Test
     @Order(2)
     @DisplayName("Basic Producer-Consumer Test")
@@ -363,8 +494,12 @@ public class AdvancedKafkaTest {
         
         RecordMetadata metadata;
         try (Producer<String, String> producer = new KafkaProducer<>(producerProps)) {
+            AsyncSendDriver<String, String> driver = new AsyncSendDriver<>(producer, SEND_WINDOW);
+            java.util.concurrent.atomic.AtomicReference<RecordMetadata> acked = new java.util.concurrent.atomic.AtomicReference<>();
             ProducerRecord<String, String> record = new ProducerRecord<>(topicName, "test-key", testMessage);
-            metadata = producer.send(record).get(10, TimeUnit.SECONDS);
+            driver.send(record, (sentMetadata, exception) -> acked.set(sentMetadata));
+            assertSendsCompleted(driver, 10);
+            metadata = acked.get();
             
             // JUnit assertions for producer
             assertNotNull(metadata, "RecordMetadata should not be null");
@@ -443,9 +578,18 @@ public class AdvancedKafkaTest {
             String messageKey = "idempotent-key";
             String messageValue = "idempotent-message-" + System.currentTimeMillis();
             
+            AsyncSendDriver<String, String> driver = new AsyncSendDriver<>(producer, SEND_WINDOW);
+            java.util.concurrent.atomic.AtomicReferenceArray<RecordMetadata> acked =
+                new java.util.concurrent.atomic.AtomicReferenceArray<>(3);
             for (int i = 0; i < 3; i++) {
+                int index = i;
                 ProducerRecord<String, String> record = new ProducerRecord<>(topicName, messageKey, messageValue);
-                RecordMetadata metadata = producer.send(record).get(10, TimeUnit.SECONDS);
+                driver.send(record, (metadata, exception) -> acked.set(index, metadata));
+            }
+            assertSendsCompleted(driver, 10);
+            
+            for (int i = 0; i < 3; i++) {
+                RecordMetadata metadata = acked.get(i);
                 
                 // JUnit assertions for idempotent producer
                 assertNotNull(metadata, "RecordMetadata should not be null for message " + (i+1));
@@ -640,10 +784,13 @@ public class AdvancedKafkaTest {
             
             String testMessage = "stream-test-message";
             try (Producer<String, String> producer = new KafkaProducer<>(producerProps)) {
+                AsyncSendDriver<String, String> driver = new AsyncSendDriver<>(producer, SEND_WINDOW);
+                java.util.concurrent.atomic.AtomicReference<RecordMetadata> acked = new java.util.concurrent.atomic.AtomicReference<>();
                 ProducerRecord<String, String> record = new ProducerRecord<>(
                     inputTopic, "stream-key", testMessage);
-                RecordMetadata metadata = producer.send(record).get(5, TimeUnit.SECONDS);
-                assertNotNull(metadata, "Producer metadata should not be null");
+                driver.send(record, (metadata, exception) -> acked.set(metadata));
+                assertSendsCompleted(driver, 5);
+                assertNotNull(acked.get(), "Producer metadata should not be null");
                 messageSent = true;
                 logger.info("📤 Test message sent to streams input topic");
             }
@@ -779,42 +926,36 @@ public class AdvancedKafkaTest {
         
         Properties producerProps = new Properties();
         producerProps.putAll(baseProps);
-        producerProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        producerProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        producerProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        producerProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
         
         // Configure for potential quota triggering
         producerProps.put(ProducerConfig.BATCH_SIZE_CONFIG, 1);
         producerProps.put(ProducerConfig.LINGER_MS_CONFIG, 0);
         producerProps.put(ProducerConfig.ACKS_CONFIG, "1");
         
-        try (Producer<String, String> producer = new KafkaProducer<>(producerProps)) {
+        try (Producer<byte[], byte[]> producer = new KafkaProducer<>(producerProps)) {
             long startTime = System.currentTimeMillis();
             int messageCount = 100;
+            PayloadPool keys = new PayloadPool(messageCount, 16, 1.0, startTime);
+            PayloadPool values = new PayloadPool(16, 100, 0.5, startTime + 1);
             
             logger.info("📤 Sending " + messageCount + " messages rapidly to test quota handling...");
             
-            List<Future<RecordMetadata>> futures = new ArrayList<>();
-            
+            AsyncSendDriver<byte[], byte[]> driver = new AsyncSendDriver<>(producer, SEND_WINDOW);
             for (int i = 0; i < messageCount; i++) {
-                ProducerRecord<String, String> record = new ProducerRecord<>(
-                    topicName, "quota-key-" + i, "quota-message-" + i + "-" + System.currentTimeMillis());
-                futures.add(producer.send(record));
+                driver.send(new ProducerRecord<>(topicName, keys.get(i), values.get(i)));
             }
             
             // Wait for all sends to complete
-            int successCount = 0;
+            assertTrue(driver.awaitCompletion(30, TimeUnit.SECONDS), "All sends should complete within 30 seconds");
+            int successCount = (int) driver.acked();
             int throttledCount = 0;
-            
-            for (Future<RecordMetadata> future : futures) {
-                try {
-                    RecordMetadata metadata = future.get(30, TimeUnit.SECONDS);
-                    successCount++;
-                } catch (Exception e) {
-                    if (e.getMessage().contains("quota") || e.getMessage().contains("throttle")) {
-                        throttledCount++;
-                    } else {
-                        throw e;
-                    }
+            for (Exception e : driver.failures()) {
+                if (e.getMessage() != null && (e.getMessage().contains("quota") || e.getMessage().contains("throttle"))) {
+                    throttledCount++;
+                } else {
+                    throw e;
                 }
             }
             
@@ -848,8 +989,8 @@ public class AdvancedKafkaTest {
         
         Properties producerProps = new Properties();
         producerProps.putAll(baseProps);
-        producerProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        producerProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        producerProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        producerProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
         
         // Configure for rate limiting testing
         producerProps.put(ProducerConfig.BATCH_SIZE_CONFIG, 16384);
@@ -863,24 +1004,22 @@ public class AdvancedKafkaTest {
         int totalMessages = batchCount * messagesPerBatch;
         int successCount = 0;
         
-        try (Producer<String, String> producer = new KafkaProducer<>(producerProps)) {
+        try (Producer<byte[], byte[]> producer = new KafkaProducer<>(producerProps)) {
             long totalStartTime = System.currentTimeMillis();
+            PayloadPool keys = new PayloadPool(totalMessages, 16, 1.0, totalStartTime);
+            PayloadPool values = new PayloadPool(16, 100, 0.5, totalStartTime + 1);
             
             logger.info("📤 Sending " + batchCount + " batches of " + messagesPerBatch + 
                              " messages each with controlled timing...");
             
-            List<Future<RecordMetadata>> allFutures = new ArrayList<>();
+            AsyncSendDriver<byte[], byte[]> driver = new AsyncSendDriver<>(producer, SEND_WINDOW);
             
             for (int batch = 0; batch < batchCount; batch++) {
                 long batchStartTime = System.currentTimeMillis();
                 
                 for (int i = 0; i < messagesPerBatch; i++) {
-                    ProducerRecord<String, String> record = new ProducerRecord<>(
-                        topicName, 
-                        "batch-" + batch + "-key-" + i, 
-                        "rate-limit-message-batch-" + batch + "-msg-" + i + "-" + System.currentTimeMillis()
-                    );
-                    allFutures.add(producer.send(record));
+                    int sequence = batch * messagesPerBatch + i;
+                    driver.send(new ProducerRecord<>(topicName, keys.get(sequence), values.get(sequence)));
                 }
                 
                 producer.flush();
@@ -900,14 +1039,10 @@ public class AdvancedKafkaTest {
             }
             
             // Verify all messages were sent successfully
-            for (Future<RecordMetadata> future : allFutures) {
-                try {
-                    RecordMetadata metadata = future.get(10, TimeUnit.SECONDS);
-                    assertNotNull(metadata, "RecordMetadata should not be null");
-                    successCount++;
-                } catch (Exception e) {
-                    System.err.println("⚠️ Message send failed: " + e.getMessage());
-                }
+            assertTrue(driver.awaitCompletion(10, TimeUnit.SECONDS), "All sends should complete within 10 seconds");
+            successCount = (int) driver.acked();
+            for (Exception e : driver.failures()) {
+                System.err.println("⚠️ Message send failed: " + e.getMessage());
             }
             
             long totalEndTime = System.currentTimeMillis();
@@ -1840,4 +1975,2888 @@ public class AdvancedKafkaTest {
             }
         }
     }
+    
+    // =========================================================================
+    // Benchmarks - tagged "benchmark" and excluded from the default 'mvn test'
+    // run (see test.excludedGroups in pom.xml). Tunables are read from
+    // -Dbenchmark.* system properties.
+    // =========================================================================
+    
+    @FunctionalInterface
+    private interface AdminBatchOperation {
+        Collection<org.apache.kafka.common.KafkaFuture<?>> submit(AdminClient adminClient, List<String> topics) throws Exception;
+    }
+    
+    // Effective tunables are remembered so the result file records defaults as well as overrides
+    private int benchmarkInt(String name, int defaultValue) {
+        int value = Integer.getInteger("benchmark." + name, defaultValue);
+        benchmarkParameters.put("benchmark." + name, String.valueOf(value));
+        return value;
+    }
+    
+    private String benchmarkString(String name, String defaultValue) {
+        String value = System.getProperty("benchmark." + name, defaultValue);
+        benchmarkParameters.put("benchmark." + name, value);
+        return value;
+    }
+    
+    /**
+     * Reusable payloads for the load generators, sized per scenario and shaped by
+     * benchmark.payload.pool.size and benchmark.payload.entropy.
+     */
+    private PayloadPool benchmarkPayloads(int recordSize) {
+        int poolSize = benchmarkInt("payload.pool.size", 64);
+        double entropy = Double.parseDouble(benchmarkString("payload.entropy", "1.0"));
+        return new PayloadPool(poolSize, recordSize, entropy, System.nanoTime());
+    }
+    
+    private static GatewayMetricsScraper gatewayMetricsScraper() {
+        return new GatewayMetricsScraper(System.getProperty("gateway.metrics.url", "http://gateway:9190/metrics"));
+    }
+    
+    /**
+     * Starts a structured result for a scenario and snapshots the gateway's resource metrics.
+     */
+    private BenchmarkResults startBenchmark(String scenario) {
+        BenchmarkResults results = new BenchmarkResults(scenario)
+            .context("bootstrap_servers", bootstrapServers)
+            .context("client_version", System.getProperty("clientVersion",
+                                                          org.apache.kafka.common.utils.AppInfoParser.getVersion()))
+            .context("server_version", System.getProperty("serverVersion"))
+            .context("gateway_image", System.getProperty("gateway.image", System.getenv("GATEWAY_IMAGE")))
+            .context("kernel", System.getProperty("os.name") + " " + System.getProperty("os.version"));
+        results.gatewayBefore(gatewayMetricsScraper().resourceSnapshot());
+        harnessAllocation.start();
+        return results;
+    }
+    
+    /**
+     * Writes the result to benchmark.results.dir (default target/benchmark-results) for
+     * benchmark_store.py. A failure to write is logged rather than failing the benchmark.
+     */
+    private void finishBenchmark(BenchmarkResults results) {
+        for (Map.Entry<String, String> parameter : benchmarkParameters.entrySet()) {
+            results.parameter(parameter.getKey(), parameter.getValue());
+        }
+        results.gatewayAfter(gatewayMetricsScraper().resourceSnapshot());
+        harnessAllocation.report(results);
+        logger.info("   🧮 Harness: {}", harnessAllocation.summary());
+        try {
+            java.io.File file = results.write(new java.io.File(
+                System.getProperty("benchmark.results.dir", "target/benchmark-results")));
+            logger.info("💾 Benchmark results written to {}", file);
+        } catch (java.io.IOException e) {
+            logger.warn("⚠️ Could not write benchmark results: {}", e.getMessage());
+        }
+    }
+    
+    private void reportLatency(BenchmarkResults results, String operation, LatencyRecorder recorder,
+                               long operations, long elapsedNanos) {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        double opsPerSecond = seconds > 0 ? operations / seconds : 0.0;
+        logger.info("   📊 [{}] {}: {} ops in {} ms ({} ops/s)", results.scenario(), operation, operations,
+                   TimeUnit.NANOSECONDS.toMillis(elapsedNanos), String.format("%.1f", opsPerSecond));
+        logger.info("      {}", recorder.summary());
+        results.metric(operation + ".ops_per_sec", opsPerSecond).latency(operation, recorder);
+    }
+    
+    @Test
+    @Order(15)
+    @Tag("benchmark")
+    @DisplayName("Bulk Admin Operations Scale Benchmark")
+    public void testAdminScale() throws Exception {
+        logger.info("🏗️ Running Bulk Admin Operations Scale Benchmark...");
+        
+        int topicCount = benchmarkInt("admin.topics", 1000);
+        int batchSize = benchmarkInt("admin.batch.size", 100);
+        int parallelism = benchmarkInt("admin.parallelism", 4);
+        int partitions = benchmarkInt("admin.partitions", 1);
+        
+        String prefix = "admin-scale-" + System.currentTimeMillis() + "-";
+        List<String> topicNames = new ArrayList<>();
+        for (int i = 0; i < topicCount; i++) {
+            topicNames.add(prefix + i);
+        }
+        List<List<String>> batches = new ArrayList<>();
+        for (int i = 0; i < topicNames.size(); i += batchSize) {
+            batches.add(topicNames.subList(i, Math.min(i + batchSize, topicNames.size())));
+        }
+        
+        logger.info("   {} topics x {} partitions, {} topics per AdminClient call, {} calls in parallel",
+                   topicCount, partitions, batchSize, parallelism);
+        
+        Properties adminProps = new Properties();
+        adminProps.putAll(baseProps);
+        adminProps.put(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        adminProps.put(AdminClientConfig.REQUEST_TIMEOUT_MS_CONFIG, 60000);
+        adminProps.put(AdminClientConfig.DEFAULT_API_TIMEOUT_MS_CONFIG, 120000);
+        
+        BenchmarkResults results = startBenchmark("admin-scale");
+        boolean topicsDeleted = false;
+        try (AdminClient adminClient = AdminClient.create(adminProps)) {
+            int created = runAdminPhase(adminClient, results, "create-topics", batches, parallelism, (admin, batch) -> {
+                List<NewTopic> newTopics = new ArrayList<>();
+                for (String topic : batch) {
+                    newTopics.add(new NewTopic(topic, partitions, (short) 1));
+                }
+                return new ArrayList<>(admin.createTopics(newTopics).values().values());
+            });
+            assertEquals(topicCount, created, "All topics should be created");
+            
+            Thread.sleep(1000); // Allow topic metadata to propagate before describing
+            
+            int described = runAdminPhase(adminClient, results, "describe-topics", batches, parallelism, (admin, batch) ->
+                new ArrayList<>(getTopicDescriptionFutures(admin.describeTopics(batch)).values()));
+            assertEquals(topicCount, described, "All topics should be described");
+            
+            int altered = runAdminPhase(adminClient, results, "alter-configs", batches, parallelism, (admin, batch) -> {
+                Map<ConfigResource, Collection<AlterConfigOp>> configs = new HashMap<>();
+                for (String topic : batch) {
+                    configs.put(new ConfigResource(ConfigResource.Type.TOPIC, topic), Collections.singletonList(
+                        new AlterConfigOp(new ConfigEntry(TopicConfig.RETENTION_MS_CONFIG, "3600000"), AlterConfigOp.OpType.SET)));
+                }
+                return new ArrayList<>(admin.incrementalAlterConfigs(configs).values().values());
+            });
+            assertEquals(topicCount, altered, "All topic configs should be altered");
+            
+            int deleted = runAdminPhase(adminClient, results, "delete-topics", batches, parallelism, (admin, batch) ->
+                new ArrayList<>(admin.deleteTopics(batch).topicNameValues().values()));
+            assertEquals(topicCount, deleted, "All topics should be deleted");
+            topicsDeleted = true;
+        } finally {
+            finishBenchmark(results);
+            if (!topicsDeleted) {
+                try (AdminClient adminClient = AdminClient.create(adminProps)) {
+                    Set<String> leftovers = new HashSet<>(adminClient.listTopics().names().get(30, TimeUnit.SECONDS));
+                    leftovers.retainAll(topicNames);
+                    if (!leftovers.isEmpty()) {
+                        adminClient.deleteTopics(leftovers).all().get(120, TimeUnit.SECONDS);
+                        logger.info("🧹 Cleaned up {} leftover benchmark topics", leftovers.size());
+                    }
+                } catch (Exception e) {
+                    logger.info("⚠️ Cleanup failed: " + e.getMessage());
+                }
+            }
+        }
+        
+        logger.info("✅ Bulk admin operations scale benchmark completed");
+    }
+    
+    /**
+     * Submits every batch through {@code operation} with up to {@code parallelism} AdminClient calls in flight.
+     * Latency is recorded per topic, from the moment its batch was submitted until its own future completes.
+     * Returns the number of topics whose operation succeeded.
+     */
+    private int runAdminPhase(AdminClient adminClient, BenchmarkResults results, String operation,
+                              List<List<String>> batches, int parallelism,
+                              AdminBatchOperation batchOperation) throws Exception {
+        LatencyRecorder recorder = new LatencyRecorder();
+        java.util.concurrent.atomic.AtomicInteger succeeded = new java.util.concurrent.atomic.AtomicInteger();
+        java.util.concurrent.atomic.AtomicInteger failed = new java.util.concurrent.atomic.AtomicInteger();
+        java.util.concurrent.ExecutorService executor = java.util.concurrent.Executors.newFixedThreadPool(parallelism);
+        
+        long phaseStart = System.nanoTime();
+        try {
+            List<Future<?>> submissions = new ArrayList<>();
+            for (List<String> batch : batches) {
+                submissions.add(executor.submit(() -> {
+                    long batchStart = System.nanoTime();
+                    List<org.apache.kafka.common.KafkaFuture<?>> completions = new ArrayList<>();
+                    for (org.apache.kafka.common.KafkaFuture<?> future : batchOperation.submit(adminClient, batch)) {
+                        completions.add(future.whenComplete((result, error) -> {
+                            recorder.recordNanos(System.nanoTime() - batchStart);
+                            if (error == null) {
+                                succeeded.incrementAndGet();
+                            } else {
+                                failed.incrementAndGet();
+                            }
+                        }));
+                    }
+                    for (org.apache.kafka.common.KafkaFuture<?> completion : completions) {
+                        try {
+                            completion.get(120, TimeUnit.SECONDS);
+                        } catch (java.util.concurrent.ExecutionException e) {
+                            // Counted by the whenComplete callback above
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> submission : submissions) {
+                submission.get(10, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        long elapsed = System.nanoTime() - phaseStart;
+        
+        reportLatency(results, operation, recorder, succeeded.get(), elapsed);
+        results.metric(operation + ".failures", failed.get());
+        if (failed.get() > 0) {
+            logger.warn("   ⚠️ {} {} operations failed", failed.get(), operation);
+        }
+        return succeeded.get();
+    }
+    
+    @Test
+    @Order(16)
+    @Tag("benchmark")
+    @DisplayName("Multi-Route Noisy-Neighbour Isolation Benchmark")
+    public void testNoisyNeighbourIsolation() throws Exception {
+        logger.info("📢 Running Multi-Route Noisy-Neighbour Isolation Benchmark...");
+        
+        String aggressorServers = benchmarkString("aggressor.bootstrap.servers", bootstrapServers);
+        String aggressorSecurity = benchmarkString("aggressor.security", "plaintext");
+        String victimServers = benchmarkString("victim.bootstrap.servers", "gateway:19095");
+        String victimSecurity = benchmarkString("victim.security", "sasl");
+        int durationSeconds = benchmarkInt("noisy.duration.seconds", 30);
+        int probeRate = benchmarkInt("noisy.probe.rate", 100);
+        int aggressorProducers = benchmarkInt("noisy.aggressor.producers", 2);
+        int aggressorRecordSize = benchmarkInt("noisy.aggressor.record.size", 16384);
+        PayloadPool aggressorPayloads = benchmarkPayloads(aggressorRecordSize);
+        
+        logger.info("   Aggressor route: {} ({}), {} producers x {} byte records",
+                   aggressorServers, aggressorSecurity, aggressorProducers, aggressorRecordSize);
+        logger.info("   Victim route:    {} ({}), probing at {} records/s for {}s per phase",
+                   victimServers, victimSecurity, probeRate, durationSeconds);
+        
+        String suffix = String.valueOf(System.currentTimeMillis());
+        String victimTopic = "noisy-victim-" + suffix;
+        String aggressorTopic = "noisy-aggressor-" + suffix;
+        BenchmarkResults results = startBenchmark("noisy-neighbour");
+        Properties victimProps = routeProps(victimServers, victimSecurity);
+        Properties aggressorProps = routeProps(aggressorServers, aggressorSecurity);
+        createBenchmarkTopic(victimProps, victimTopic, 1);
+        createBenchmarkTopic(aggressorProps, aggressorTopic, 6);
+        try {
+            runNoisyNeighbourPhases(results, victimProps, victimTopic, aggressorProps, aggressorTopic,
+                                    aggressorPayloads, aggressorProducers, probeRate, durationSeconds);
+        } finally {
+            deleteBenchmarkTopic(victimProps, victimTopic);
+            deleteBenchmarkTopic(aggressorProps, aggressorTopic);
+        }
+    }
+    
+    private void runNoisyNeighbourPhases(BenchmarkResults results, Properties victimProps, String victimTopic,
+                                         Properties aggressorProps, String aggressorTopic,
+                                         PayloadPool aggressorPayloads, int aggressorProducers, int probeRate,
+                                         int durationSeconds) throws Exception {
+        // Phase 1: victim alone
+        logger.info("⏱️ Phase 1: latency probe on the victim route with no competing load...");
+        java.util.concurrent.atomic.LongAdder baselineFailures = new java.util.concurrent.atomic.LongAdder();
+        LatencyRecorder baseline = runLatencyProbe(victimProps, victimTopic, probeRate, durationSeconds,
+                                                   baselineFailures);
+        
+        // Phase 2: victim while the aggressor saturates the other route
+        logger.info("🔥 Phase 2: saturating the aggressor route and probing the victim route again...");
+        java.util.concurrent.atomic.AtomicBoolean running = new java.util.concurrent.atomic.AtomicBoolean(true);
+        java.util.concurrent.atomic.LongAdder aggressorBytes = new java.util.concurrent.atomic.LongAdder();
+        java.util.concurrent.atomic.LongAdder contendedFailures = new java.util.concurrent.atomic.LongAdder();
+        List<Thread> aggressors = new ArrayList<>();
+        for (int i = 0; i < aggressorProducers; i++) {
+            Thread aggressor = new Thread(() -> runSaturatingProducer(aggressorProps, aggressorTopic,
+                                                                      aggressorPayloads, running, aggressorBytes),
+                                          "noisy-aggressor-" + i);
+            aggressor.setDaemon(true);
+            aggressor.start();
+            aggressors.add(aggressor);
+        }
+        LatencyRecorder contended;
+        double aggressorSeconds;
+        long aggressorProbedBytes;
+        try {
+            Thread.sleep(5000); // Let the aggressor ramp up before probing
+            // Aggressor throughput counts only the probed window, not the ramp
+            long rampBytes = aggressorBytes.sum();
+            long probeStart = System.nanoTime();
+            contended = runLatencyProbe(victimProps, victimTopic, probeRate, durationSeconds, contendedFailures);
+            aggressorSeconds = (System.nanoTime() - probeStart) / 1_000_000_000.0;
+            aggressorProbedBytes = aggressorBytes.sum() - rampBytes;
+        } finally {
+            running.set(false);
+            for (Thread aggressor : aggressors) {
+                aggressor.join(30000);
+            }
+        }
+        double aggressorMBps = aggressorProbedBytes / aggressorSeconds / (1024 * 1024);
+        
+        double baselineP99 = baseline.percentileMillis(99);
+        double contendedP99 = contended.percentileMillis(99);
+        double degradation = baselineP99 > 0 ? contendedP99 / baselineP99 : 0.0;
+        
+        logger.info("✅ Noisy-neighbour isolation results:");
+        logger.info("   Aggressor throughput: {} MB/s", String.format("%.1f", aggressorMBps));
+        logger.info("   Victim baseline:  {}, {} failed", baseline.summary(), baselineFailures.sum());
+        logger.info("   Victim contended: {}, {} failed", contended.summary(), contendedFailures.sum());
+        logger.info("   Victim p99 degradation: {} ms -> {} ms ({}x)", String.format("%.2f", baselineP99),
+                   String.format("%.2f", contendedP99), String.format("%.2f", degradation));
+        results.latency("victim.baseline", baseline)
+            .latency("victim.contended", contended)
+            .metric("victim.baseline.failures", baselineFailures.sum())
+            .metric("victim.contended.failures", contendedFailures.sum())
+            .metric("victim.p99_degradation_ratio", degradation)
+            .metric("aggressor.throughput_mbps", aggressorMBps);
+        finishBenchmark(results);
+        
+        assertTrue(baseline.count() > 0, "Victim probe should complete sends without competing load");
+        assertTrue(contended.count() > 0, "Victim probe should complete sends under competing load");
+        assertEquals(0, baselineFailures.sum(), "Victim sends failed without competing load");
+        assertEquals(0, contendedFailures.sum(), "Victim sends failed under competing load; the routes are not isolated");
+        assertTrue(aggressorBytes.sum() > 0, "Aggressor should have produced data");
+    }
+    
+    private void createBenchmarkTopic(Properties clientProps, String topic, int partitions) throws Exception {
+        Properties adminProps = new Properties();
+        adminProps.putAll(clientProps);
+        adminProps.put(AdminClientConfig.REQUEST_TIMEOUT_MS_CONFIG, 15000);
+        try (AdminClient adminClient = AdminClient.create(adminProps)) {
+            adminClient.createTopics(Collections.singletonList(new NewTopic(topic, partitions, (short) 1)))
+                .all().get(15, TimeUnit.SECONDS);
+        }
+        Thread.sleep(1000); // Allow topic to be fully propagated
+    }
+    
+    private void deleteBenchmarkTopic(Properties clientProps, String topic) {
+        Properties adminProps = new Properties();
+        adminProps.putAll(clientProps);
+        adminProps.put(AdminClientConfig.REQUEST_TIMEOUT_MS_CONFIG, 15000);
+        try (AdminClient adminClient = AdminClient.create(adminProps)) {
+            adminClient.deleteTopics(Collections.singletonList(topic)).all().get(15, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            logger.warn("⚠️ Could not delete benchmark topic {}: {}", topic, e.getMessage());
+        }
+    }
+    
+    /**
+     * Sends small records at a fixed rate and records produce latency (send to ack). Latency is measured
+     * from each record's scheduled send time, so a stalled pipeline shows up as latency rather than
+     * as fewer samples. A failed send is recorded at the time it failed and counted in {@code failures},
+     * so a timeout raises p99 instead of dropping out of it. A short unrecorded warm-up absorbs
+     * connection and metadata setup.
+     */
+    private LatencyRecorder runLatencyProbe(Properties clientProps, String topic, int ratePerSecond,
+                                            int durationSeconds, java.util.concurrent.atomic.LongAdder failures)
+            throws Exception {
+        Properties producerProps = new Properties();
+        producerProps.putAll(clientProps);
+        producerProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        producerProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        producerProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        producerProps.put(ProducerConfig.LINGER_MS_CONFIG, 0);
+        
+        LatencyRecorder recorder = new LatencyRecorder();
+        java.util.concurrent.atomic.LongAdder warmupFailures = new java.util.concurrent.atomic.LongAdder();
+        byte[] value = new byte[100];
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, ratePerSecond);
+        long warmupRecords = Math.max(1, ratePerSecond * 2L);
+        long totalRecords = warmupRecords + (long) ratePerSecond * durationSeconds;
+        
+        try (Producer<byte[], byte[]> producer = new KafkaProducer<>(producerProps)) {
+            long start = System.nanoTime();
+            for (long i = 0; i < totalRecords; i++) {
+                long scheduled = start + i * intervalNanos;
+                long wait = scheduled - System.nanoTime();
+                if (wait > 0) {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                }
+                boolean measured = i >= warmupRecords;
+                producer.send(new ProducerRecord<>(topic, value), (metadata, exception) -> {
+                    if (!measured) {
+                        if (exception != null) {
+                            warmupFailures.increment();
+                        }
+                        return;
+                    }
+                    recorder.recordNanos(System.nanoTime() - scheduled);
+                    if (exception != null) {
+                        failures.increment();
+                    }
+                });
+            }
+            producer.flush();
+        }
+        if (warmupFailures.sum() + failures.sum() > 0) {
+            logger.warn("   ⚠️ {} probe records failed ({} during warm-up)", warmupFailures.sum() + failures.sum(),
+                       warmupFailures.sum());
+        }
+        return recorder;
+    }
+    
+    /**
+     * Sends pooled payloads as fast as the producer accepts them. The loop allocates only the
+     * ProducerRecord per send; its thread's allocation is reported through the harness meter.
+     */
+    private void runSaturatingProducer(Properties clientProps, String topic, PayloadPool payloads,
+                                       java.util.concurrent.atomic.AtomicBoolean running,
+                                       java.util.concurrent.atomic.LongAdder ackedBytes) {
+        Properties producerProps = new Properties();
+        producerProps.putAll(clientProps);
+        producerProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        producerProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        producerProps.put(ProducerConfig.ACKS_CONFIG, "1");
+        producerProps.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+        producerProps.put(ProducerConfig.BATCH_SIZE_CONFIG, 262144);
+        producerProps.put(ProducerConfig.BUFFER_MEMORY_CONFIG, 67108864L);
+        
+        int recordSize = payloads.get(0).length;
+        Callback onAck = (metadata, exception) -> {
+            if (exception == null) {
+                ackedBytes.add(recordSize);
+            }
+        };
+        try (Producer<byte[], byte[]> producer = new KafkaProducer<>(producerProps)) {
+            long records = 0;
+            long allocatedBefore = HarnessAllocationMeter.currentThreadAllocatedBytes();
+            while (running.get()) {
+                producer.send(new ProducerRecord<>(topic, payloads.get(records++)), onAck);
+            }
+            harnessAllocation.addGenerator(allocatedBefore, HarnessAllocationMeter.currentThreadAllocatedBytes(),
+                                           records);
+        } catch (Exception e) {
+            logger.warn("⚠️ Saturating producer stopped: {}", e.getMessage());
+        }
+    }
+    
+    @Test
+    @Order(17)
+    @Tag("benchmark")
+    @DisplayName("Gateway Restart Recovery Benchmark")
+    public void testGatewayRestartRecovery() throws Exception {
+        logger.info("🔄 Running Gateway Restart Recovery Benchmark...");
+        
+        int durationSeconds = benchmarkInt("restart.duration.seconds", 60);
+        int restartDelaySeconds = benchmarkInt("restart.delay.seconds", 15);
+        int rate = benchmarkInt("restart.rate", 200);
+        int stallMs = benchmarkInt("restart.stall.ms", 1000);
+        String restartCommand = benchmarkString("restart.command", "");
+        java.io.File marker = new java.io.File(benchmarkString("restart.marker", "/tmp/gateway-restart-at"));
+        marker.delete();
+        
+        if (restartCommand.isEmpty()) {
+            logger.info("   No benchmark.restart.command set; waiting for an external restart (marker: {})", marker);
+        } else {
+            logger.info("   Restart command '{}' runs after {}s", restartCommand, restartDelaySeconds);
+        }
+        logger.info("   Producing {} records/s for {}s, stall threshold {} ms", rate, durationSeconds, stallMs);
+        
+        String topic = "restart-recovery-" + System.currentTimeMillis();
+        createBenchmarkTopic(baseProps, topic, 1);
+        
+        BenchmarkResults results = startBenchmark("restart-recovery");
+        RecoveryTracker tracker = new RecoveryTracker(stallMs);
+        java.util.concurrent.atomic.AtomicBoolean producing = new java.util.concurrent.atomic.AtomicBoolean(true);
+        java.util.concurrent.atomic.AtomicBoolean consuming = new java.util.concurrent.atomic.AtomicBoolean(true);
+        
+        Thread producerThread = new Thread(() -> runSequenceProducer(topic, rate, producing, tracker),
+                                           "restart-producer");
+        Thread consumerThread = new Thread(() -> runSequenceConsumer(topic, consuming, tracker),
+                                           "restart-consumer");
+        producerThread.start();
+        consumerThread.start();
+        
+        Process restartProcess = null;
+        try {
+            long start = System.currentTimeMillis();
+            long end = start + TimeUnit.SECONDS.toMillis(durationSeconds);
+            long restartAt = start + TimeUnit.SECONDS.toMillis(restartDelaySeconds);
+            while (System.currentTimeMillis() < end) {
+                long now = System.currentTimeMillis();
+                if (!restartCommand.isEmpty() && restartProcess == null && now >= restartAt) {
+                    logger.info("🔁 Restarting gateway: {}", restartCommand);
+                    tracker.markRestart(now);
+                    restartProcess = new ProcessBuilder("sh", "-c", restartCommand).inheritIO().start();
+                }
+                if (tracker.restartAtMs() == 0 && marker.isFile()) {
+                    String content = new String(java.nio.file.Files.readAllBytes(marker.toPath()), "UTF-8").trim();
+                    tracker.markRestart(content.isEmpty() ? now : Long.parseLong(content));
+                    logger.info("🔁 External gateway restart recorded at {}", tracker.restartAtMs());
+                }
+                tracker.check(now);
+                Thread.sleep(50);
+            }
+            
+            producing.set(false);
+            producerThread.join(60000);
+            
+            // Give the consumer time to catch up on everything that was acknowledged
+            long drainDeadline = System.currentTimeMillis() + 30000;
+            while (!tracker.allAckedConsumed() && System.currentTimeMillis() < drainDeadline) {
+                Thread.sleep(200);
+            }
+        } finally {
+            producing.set(false);
+            consuming.set(false);
+            producerThread.join(60000);
+            consumerThread.join(10000);
+            if (restartProcess != null && !restartProcess.waitFor(60, TimeUnit.SECONDS)) {
+                restartProcess.destroy();
+            }
+        }
+        if (restartProcess != null && restartProcess.exitValue() != 0) {
+            logger.warn("⚠️ Restart command exited with {}", restartProcess.exitValue());
+        }
+        
+        // Without a restart there is nothing to measure, and storing the run would skew the baseline
+        assumeTrue(tracker.restartAtMs() != 0,
+                   "No gateway restart was triggered or recorded; set benchmark.restart.command or write "
+                   + marker);
+        logger.info("✅ Gateway restart recovery results:");
+        if (!tracker.disrupted()) {
+            logger.info("   No client-visible disruption detected");
+        } else {
+            logger.info("   Time to first error:    {}", formatRecoveryMillis(tracker.timeToFirstErrorMs()));
+            logger.info("   Time to full recovery:  {}", formatRecoveryMillis(tracker.timeToRecoveryMs()));
+            logger.info("   Client-visible outage:  {}", formatRecoveryMillis(tracker.outageMs()));
+        }
+        logger.info("   Acked: {}, failed sends: {}, consumed: {}, lost: {}, duplicates: {}",
+                   tracker.ackedCount(), tracker.failedSends(), tracker.consumedCount(),
+                   tracker.lost(), tracker.duplicates());
+        results.metric("time_to_first_error_ms", tracker.timeToFirstErrorMs())
+            .metric("time_to_recovery_ms", tracker.timeToRecoveryMs())
+            .metric("outage_ms", tracker.outageMs())
+            .metric("failed_sends", tracker.failedSends())
+            .metric("lost_records", tracker.lost())
+            .metric("duplicate_records", tracker.duplicates());
+        finishBenchmark(results);
+        
+        assertTrue(tracker.ackedCount() > 0, "Producer should have records acknowledged");
+        assertTrue(!tracker.disrupted() || tracker.recovered(), "Clients should recover after the gateway restart");
+        assertEquals(0, tracker.lost(), "Acknowledged records should not be lost across a gateway restart");
+    }
+    
+    private static String formatRecoveryMillis(long millis) {
+        return millis < 0 ? "n/a" : millis + " ms";
+    }
+    
+    private void runSequenceProducer(String topic, int ratePerSecond,
+                                     java.util.concurrent.atomic.AtomicBoolean running, RecoveryTracker tracker) {
+        Properties producerProps = new Properties();
+        producerProps.putAll(baseProps);
+        producerProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        producerProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        producerProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        producerProps.put(ProducerConfig.LINGER_MS_CONFIG, 0);
+        producerProps.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, 10000);
+        
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, ratePerSecond);
+        try (Producer<String, String> producer = new KafkaProducer<>(producerProps)) {
+            long start = System.nanoTime();
+            for (int sequence = 0; running.get(); sequence++) {
+                long wait = start + sequence * intervalNanos - System.nanoTime();
+                if (wait > 0) {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                }
+                final int seq = sequence;
+                try {
+                    producer.send(new ProducerRecord<>(topic, String.valueOf(seq)), (metadata, exception) -> {
+                        if (exception != null) {
+                            tracker.onSendError(System.currentTimeMillis());
+                        } else {
+                            tracker.onAck(seq, System.currentTimeMillis());
+                        }
+                    });
+                } catch (Exception e) {
+                    tracker.onSendError(System.currentTimeMillis());
+                }
+            }
+            producer.flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private void runSequenceConsumer(String topic, java.util.concurrent.atomic.AtomicBoolean running,
+                                     RecoveryTracker tracker) {
+        Properties consumerProps = new Properties();
+        consumerProps.putAll(baseProps);
+        consumerProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        consumerProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        consumerProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        
+        TopicPartition partition = new TopicPartition(topic, 0);
+        try (Consumer<String, String> consumer = new KafkaConsumer<>(consumerProps)) {
+            consumer.assign(Collections.singletonList(partition));
+            consumer.seekToBeginning(Collections.singletonList(partition));
+            while (running.get()) {
+                try {
+                    ConsumerRecords<String, String> records = consumer.poll(Duration.ofMillis(200));
+                    long now = System.currentTimeMillis();
+                    for (ConsumerRecord<String, String> record : records) {
+                        tracker.onConsumed(Integer.parseInt(record.value()), now);
+                    }
+                } catch (Exception e) {
+                    logger.debug("Consumer poll failed during restart: {}", e.getMessage());
+                }
+            }
+        }
+    }
+    
+    @Test
+    @Order(18)
+    @Tag("benchmark")
+    @DisplayName("Leader Movement Under Load Benchmark")
+    public void testLeaderMovementUnderLoad() throws Exception {
+        logger.info("👑 Running Leader Movement Under Load Benchmark...");
+        
+        int partitions = benchmarkInt("leader.partitions", 6);
+        int moves = benchmarkInt("leader.moves", 3);
+        int rate = benchmarkInt("leader.rate", 500);
+        int settleSeconds = benchmarkInt("leader.settle.seconds", 10);
+        
+        Properties adminProps = new Properties();
+        adminProps.putAll(baseProps);
+        adminProps.put(AdminClientConfig.REQUEST_TIMEOUT_MS_CONFIG, 30000);
+        
+        try (AdminClient adminClient = AdminClient.create(adminProps)) {
+            List<Integer> brokerIds = new ArrayList<>();
+            for (Node node : adminClient.describeCluster().nodes().get(15, TimeUnit.SECONDS)) {
+                brokerIds.add(node.id());
+            }
+            Collections.sort(brokerIds);
+            assumeTrue(brokerIds.size() >= 2, "Leader movement needs at least 2 brokers behind the gateway, found "
+                       + brokerIds.size() + " (see ./version-compatibility.sh --leader-movement)");
+            logger.info("   Brokers: {}, {} partitions, {} leader moves, {} records/s", brokerIds, partitions,
+                       moves, rate);
+            
+            // Two replicas per partition so reversing the replica list moves the preferred leader
+            String topic = "leader-movement-" + System.currentTimeMillis();
+            Map<Integer, List<Integer>> assignments = new HashMap<>();
+            for (int p = 0; p < partitions; p++) {
+                assignments.put(p, Arrays.asList(brokerIds.get(p % brokerIds.size()),
+                                                 brokerIds.get((p + 1) % brokerIds.size())));
+            }
+            adminClient.createTopics(Collections.singletonList(new NewTopic(topic, assignments)))
+                .all().get(15, TimeUnit.SECONDS);
+            Thread.sleep(2000);
+            
+            Properties producerProps = new Properties();
+            producerProps.putAll(baseProps);
+            producerProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+            producerProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+            producerProps.put(ProducerConfig.ACKS_CONFIG, "all");
+            producerProps.put(ProducerConfig.LINGER_MS_CONFIG, 0);
+            
+            BenchmarkResults results = startBenchmark("leader-movement");
+            java.util.concurrent.atomic.AtomicReference<LatencyRecorder> window =
+                new java.util.concurrent.atomic.AtomicReference<>(new LatencyRecorder());
+            java.util.concurrent.atomic.LongAdder failures = new java.util.concurrent.atomic.LongAdder();
+            java.util.concurrent.atomic.AtomicBoolean running = new java.util.concurrent.atomic.AtomicBoolean(true);
+            
+            try (Producer<byte[], byte[]> producer = new KafkaProducer<>(producerProps)) {
+                Thread sender = new Thread(() -> {
+                    byte[] value = new byte[100];
+                    long intervalNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, rate);
+                    long start = System.nanoTime();
+                    try {
+                        for (long i = 0; running.get(); i++) {
+                            long scheduled = start + i * intervalNanos;
+                            long wait = scheduled - System.nanoTime();
+                            if (wait > 0) {
+                                TimeUnit.NANOSECONDS.sleep(wait);
+                            }
+                            LatencyRecorder recorder = window.get();
+                            producer.send(new ProducerRecord<>(topic, (int) (i % partitions), null, value),
+                                (metadata, exception) -> {
+                                    if (exception != null) {
+                                        failures.increment();
+                                    } else {
+                                        recorder.recordNanos(System.nanoTime() - scheduled);
+                                    }
+                                });
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }, "leader-movement-producer");
+                sender.start();
+                
+                try {
+                    Thread.sleep(TimeUnit.SECONDS.toMillis(settleSeconds));
+                    LatencyRecorder baseline = window.getAndSet(new LatencyRecorder());
+                    logger.info("   Baseline: {}", baseline.summary());
+                    
+                    LatencyRecorder movesLatency = new LatencyRecorder();
+                    long maxElectionMs = 0;
+                    long maxPropagationMs = 0;
+                    long totalRetries = 0;
+                    int unpropagatedMoves = 0;
+                    for (int move = 1; move <= moves; move++) {
+                        double retriesBefore = producerMetric(producer, "record-retry-total");
+                        long failuresBefore = failures.sum();
+                        
+                        // Reverse every replica list, then run a preferred election to move leadership
+                        Map<TopicPartition, java.util.Optional<org.apache.kafka.clients.admin.NewPartitionReassignment>> reassignments =
+                            new HashMap<>();
+                        Map<TopicPartition, Integer> expectedLeaders = new HashMap<>();
+                        for (Map.Entry<Integer, List<Integer>> entry : assignments.entrySet()) {
+                            List<Integer> reversed = new ArrayList<>(entry.getValue());
+                            Collections.reverse(reversed);
+                            entry.setValue(reversed);
+                            TopicPartition tp = new TopicPartition(topic, entry.getKey());
+                            reassignments.put(tp, java.util.Optional.of(
+                                new org.apache.kafka.clients.admin.NewPartitionReassignment(reversed)));
+                            expectedLeaders.put(tp, reversed.get(0));
+                        }
+                        
+                        long moveStart = System.nanoTime();
+                        adminClient.alterPartitionReassignments(reassignments).all().get(30, TimeUnit.SECONDS);
+                        waitForReassignments(adminClient, expectedLeaders.keySet());
+                        Map<TopicPartition, java.util.Optional<Throwable>> elections = adminClient
+                            .electLeaders(org.apache.kafka.common.ElectionType.PREFERRED, expectedLeaders.keySet())
+                            .partitions().get(30, TimeUnit.SECONDS);
+                        long electedAt = System.nanoTime();
+                        for (Map.Entry<TopicPartition, java.util.Optional<Throwable>> election : elections.entrySet()) {
+                            // ElectionNotNeeded means the preferred replica already leads, which is the goal
+                            Throwable error = election.getValue().orElse(null);
+                            if (error != null
+                                    && !(error instanceof org.apache.kafka.common.errors.ElectionNotNeededException)) {
+                                fail("Preferred leader election failed for " + election.getKey() + ": " + error);
+                            }
+                        }
+                        
+                        // Client-side view: how long until producer metadata points at the new leaders
+                        long propagatedAt = -1;
+                        long deadline = electedAt + TimeUnit.SECONDS.toNanos(60);
+                        while (System.nanoTime() < deadline) {
+                            if (clientSeesLeaders(producer, topic, expectedLeaders)) {
+                                propagatedAt = System.nanoTime();
+                                break;
+                            }
+                            Thread.sleep(20);
+                        }
+                        
+                        Thread.sleep(TimeUnit.SECONDS.toMillis(settleSeconds));
+                        LatencyRecorder moveWindow = window.getAndSet(new LatencyRecorder());
+                        double retries = producerMetric(producer, "record-retry-total") - retriesBefore;
+                        
+                        logger.info("   Move {}: election {} ms, client metadata {} ms after election, " +
+                                   "retries (all causes) {}, failed sends {}", move,
+                                   TimeUnit.NANOSECONDS.toMillis(electedAt - moveStart),
+                                   propagatedAt < 0 ? "n/a" : TimeUnit.NANOSECONDS.toMillis(propagatedAt - electedAt),
+                                   (long) retries, failures.sum() - failuresBefore);
+                        logger.info("   Move {} window: {} (p99 {}x baseline)", move, moveWindow.summary(),
+                                   String.format("%.2f", baseline.percentileMillis(99) > 0
+                                       ? moveWindow.percentileMillis(99) / baseline.percentileMillis(99) : 0.0));
+                        logLeaderEndpoints(producer, topic);
+                        
+                        movesLatency.add(moveWindow);
+                        maxElectionMs = Math.max(maxElectionMs, TimeUnit.NANOSECONDS.toMillis(electedAt - moveStart));
+                        totalRetries += (long) retries;
+                        if (propagatedAt < 0) {
+                            unpropagatedMoves++;
+                        } else {
+                            maxPropagationMs = Math.max(maxPropagationMs,
+                                                        TimeUnit.NANOSECONDS.toMillis(propagatedAt - electedAt));
+                        }
+                    }
+                    
+                    results.latency("baseline", baseline)
+                        .latency("moves", movesLatency)
+                        .metric("max_election_ms", maxElectionMs)
+                        .metric("max_metadata_propagation_ms", maxPropagationMs)
+                        // record-retry-total counts every retriable error, not only NOT_LEADER_OR_FOLLOWER
+                        .metric("retries_all_causes", totalRetries)
+                        .metric("failed_sends", failures.sum());
+                    finishBenchmark(results);
+                    assertEquals(0, unpropagatedMoves, "Producer metadata should reflect the new leaders after every move");
+                } finally {
+                    running.set(false);
+                    sender.join(10000);
+                }
+            } finally {
+                adminClient.deleteTopics(Collections.singletonList(topic));
+            }
+            logger.info("✅ Leader movement benchmark completed, {} failed sends in total", failures.sum());
+        }
+    }
+    
+    private void waitForReassignments(AdminClient adminClient, Set<TopicPartition> partitions) throws Exception {
+        long deadline = System.currentTimeMillis() + 60000;
+        while (System.currentTimeMillis() < deadline) {
+            if (adminClient.listPartitionReassignments(partitions).reassignments()
+                    .get(10, TimeUnit.SECONDS).isEmpty()) {
+                return;
+            }
+            Thread.sleep(100);
+        }
+        logger.warn("⚠️ Partition reassignments still in progress after 60s");
+    }
+    
+    private boolean clientSeesLeaders(Producer<?, ?> producer, String topic, Map<TopicPartition, Integer> expected) {
+        for (org.apache.kafka.common.PartitionInfo info : producer.partitionsFor(topic)) {
+            Integer leader = expected.get(new TopicPartition(topic, info.partition()));
+            if (leader != null && (info.leader() == null || info.leader().id() != leader)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Logs the endpoint each partition leader is reached through, i.e. the gateway's per-broker
+     * port when brokerIdentificationStrategy is port.
+     */
+    private void logLeaderEndpoints(Producer<?, ?> producer, String topic) {
+        StringBuilder endpoints = new StringBuilder();
+        for (org.apache.kafka.common.PartitionInfo info : producer.partitionsFor(topic)) {
+            Node leader = info.leader();
+            endpoints.append(String.format(" p%d->%s", info.partition(),
+                leader == null ? "none" : leader.id() + "@" + leader.host() + ":" + leader.port()));
+        }
+        logger.info("   Leaders:{}", endpoints);
+    }
+    
+    private static double producerMetric(Producer<?, ?> producer, String name) {
+        for (Map.Entry<org.apache.kafka.common.MetricName, ? extends org.apache.kafka.common.Metric> entry
+                : producer.metrics().entrySet()) {
+            if (entry.getKey().name().equals(name) && entry.getKey().group().equals("producer-metrics")) {
+                Object value = entry.getValue().metricValue();
+                return value instanceof Number ? ((Number) value).doubleValue() : 0.0;
+            }
+        }
+        return 0.0;
+    }
+    
+    @Test
+    @Order(19)
+    @Tag("benchmark")
+    @DisplayName("Broker Count Scaling Throughput Benchmark")
+    public void testBrokerScalingThroughput() throws Exception {
+        logger.info("📈 Running Broker Count Scaling Throughput Benchmark...");
+        
+        int partitionsPerBroker = benchmarkInt("scaling.partitions.per.broker", 6);
+        int durationSeconds = benchmarkInt("scaling.duration.seconds", 30);
+        int recordSize = benchmarkInt("scaling.record.size", 1024);
+        
+        int brokers;
+        Properties adminProps = new Properties();
+        adminProps.putAll(baseProps);
+        adminProps.put(AdminClientConfig.REQUEST_TIMEOUT_MS_CONFIG, 15000);
+        try (AdminClient adminClient = AdminClient.create(adminProps)) {
+            brokers = adminClient.describeCluster().nodes().get(15, TimeUnit.SECONDS).size();
+        }
+        int partitions = brokers * partitionsPerBroker;
+        int producers = benchmarkInt("scaling.producers", brokers * 2);
+        int consumers = benchmarkInt("scaling.consumers", Math.min(partitions, brokers * 2));
+        logger.info("   {} brokers, {} partitions, {} producers, {} consumers, {} byte records for {}s",
+                   brokers, partitions, producers, consumers, recordSize, durationSeconds);
+        
+        String topic = "broker-scaling-" + System.currentTimeMillis();
+        PayloadPool payloads = benchmarkPayloads(recordSize);
+        createBenchmarkTopic(baseProps, topic, partitions);
+        BenchmarkResults results = startBenchmark("broker-scaling");
+        
+        // Produce phase: saturate every partition for a fixed time
+        java.util.concurrent.atomic.AtomicBoolean running = new java.util.concurrent.atomic.AtomicBoolean(true);
+        java.util.concurrent.atomic.LongAdder producedBytes = new java.util.concurrent.atomic.LongAdder();
+        List<Thread> producerThreads = new ArrayList<>();
+        long produceStart = System.nanoTime();
+        for (int i = 0; i < producers; i++) {
+            Thread producer = new Thread(() -> runSaturatingProducer(baseProps, topic, payloads, running,
+                                                                     producedBytes), "scaling-producer-" + i);
+            producer.start();
+            producerThreads.add(producer);
+        }
+        Thread.sleep(TimeUnit.SECONDS.toMillis(durationSeconds));
+        running.set(false);
+        for (Thread producer : producerThreads) {
+            producer.join(60000);
+        }
+        double produceSeconds = (System.nanoTime() - produceStart) / 1_000_000_000.0;
+        long expectedRecords = producedBytes.sum() / recordSize;
+        
+        // Consume phase: read everything back with partitions split across consumers
+        java.util.concurrent.atomic.LongAdder consumedBytes = new java.util.concurrent.atomic.LongAdder();
+        java.util.concurrent.atomic.LongAdder consumedRecords = new java.util.concurrent.atomic.LongAdder();
+        List<Thread> consumerThreads = new ArrayList<>();
+        long consumeStart = System.nanoTime();
+        for (int i = 0; i < consumers; i++) {
+            List<TopicPartition> assigned = new ArrayList<>();
+            for (int p = i; p < partitions; p += consumers) {
+                assigned.add(new TopicPartition(topic, p));
+            }
+            Thread consumer = new Thread(() -> drainPartitions(assigned, consumedRecords, consumedBytes),
+                                         "scaling-consumer-" + i);
+            consumer.start();
+            consumerThreads.add(consumer);
+        }
+        for (Thread consumer : consumerThreads) {
+            consumer.join();
+        }
+        double consumeSeconds = (System.nanoTime() - consumeStart) / 1_000_000_000.0;
+        
+        double produceMBps = producedBytes.sum() / produceSeconds / (1024 * 1024);
+        double consumeMBps = consumedBytes.sum() / consumeSeconds / (1024 * 1024);
+        logger.info("✅ Broker scaling results:");
+        logger.info("   Produced {} records, consumed {} records", expectedRecords, consumedRecords.sum());
+        logger.info("   Aggregate produce: {} MB/s ({} MB/s per broker)", String.format("%.1f", produceMBps),
+                   String.format("%.1f", produceMBps / brokers));
+        logger.info("   Aggregate consume: {} MB/s ({} MB/s per broker)", String.format("%.1f", consumeMBps),
+                   String.format("%.1f", consumeMBps / brokers));
+        logger.info("📈 Scaling result: brokers={} produce={}MB/s consume={}MB/s", brokers,
+                   String.format("%.1f", produceMBps), String.format("%.1f", consumeMBps));
+        results.parameter("brokers", brokers)
+            .metric("produce_mbps", produceMBps)
+            .metric("consume_mbps", consumeMBps)
+            .metric("produce_per_broker_mbps", produceMBps / brokers)
+            .metric("consume_per_broker_mbps", consumeMBps / brokers);
+        finishBenchmark(results);
+        
+        assertTrue(producedBytes.sum() > 0, "Producers should have written data");
+        assertTrue(consumedRecords.sum() >= expectedRecords, "Consumers should read back every acknowledged record");
+    }
+    
+    /**
+     * Reads the given partitions from the beginning until they have been idle for five seconds.
+     */
+    private void drainPartitions(List<TopicPartition> partitions, java.util.concurrent.atomic.LongAdder records,
+                                 java.util.concurrent.atomic.LongAdder bytes) {
+        Properties consumerProps = new Properties();
+        consumerProps.putAll(baseProps);
+        consumerProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        consumerProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        consumerProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        consumerProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 2000);
+        consumerProps.put(ConsumerConfig.FETCH_MAX_BYTES_CONFIG, 52428800);
+        
+        try (Consumer<byte[], byte[]> consumer = new KafkaConsumer<>(consumerProps)) {
+            consumer.assign(partitions);
+            consumer.seekToBeginning(partitions);
+            long lastRecordAt = System.currentTimeMillis();
+            while (System.currentTimeMillis() - lastRecordAt < 5000) {
+                ConsumerRecords<byte[], byte[]> polled = consumer.poll(Duration.ofMillis(500));
+                if (!polled.isEmpty()) {
+                    lastRecordAt = System.currentTimeMillis();
+                }
+                for (ConsumerRecord<byte[], byte[]> record : polled) {
+                    records.increment();
+                    bytes.add(record.value() == null ? 0 : record.value().length);
+                }
+            }
+        }
+    }
+    
+    @Test
+    @Order(20)
+    @Tag("benchmark")
+    @DisplayName("Client Fleet Connection Cost Benchmark")
+    public void testClientFleet() throws Exception {
+        logger.info("🛰️ Running Client Fleet Connection Cost Benchmark...");
+        
+        int producers = benchmarkInt("fleet.producers", 100);
+        int consumers = benchmarkInt("fleet.consumers", 1000);
+        int intervalMs = benchmarkInt("fleet.interval.ms", 5000);
+        int partitions = benchmarkInt("fleet.partitions", 12);
+        int rampSeconds = benchmarkInt("fleet.ramp.seconds", 30);
+        int durationSeconds = benchmarkInt("fleet.duration.seconds", 60);
+        
+        // JDK 21+ parks one virtual thread per client; older JDKs drive the same fleet from a few pooled
+        // threads (see PooledClientFleet), so the requested client count is kept either way
+        java.util.concurrent.ExecutorService executor = newVirtualThreadExecutor();
+        boolean virtualThreads = executor != null;
+        PooledClientFleet pooled = virtualThreads ? null
+            : new PooledClientFleet(baseProps, benchmarkInt("fleet.connect.threads", 16),
+                                    benchmarkInt("fleet.send.threads", 4), benchmarkInt("fleet.poll.threads", 8));
+        int clients = producers + consumers;
+        logger.info("   {} producers (one record every {} ms) and {} consumers on {}, ramped over {}s, " +
+                   "steady for {}s", producers, intervalMs, consumers,
+                   virtualThreads ? "one virtual thread each" : pooled.threads() + " pooled threads",
+                   rampSeconds, durationSeconds);
+        
+        String topic = "client-fleet-" + System.currentTimeMillis();
+        createBenchmarkTopic(baseProps, topic, partitions);
+        GatewayMetricsScraper scraper = gatewayMetricsScraper();
+        Map<String, Double> idle = averageConnectionSnapshots(scraper, 3, 1000);
+        BenchmarkResults results = startBenchmark("client-fleet");
+        
+        PerClientLatency produceLatency = new PerClientLatency(producers);
+        PerClientLatency endToEndLatency = new PerClientLatency(consumers);
+        java.util.concurrent.atomic.LongAdder failures = new java.util.concurrent.atomic.LongAdder();
+        java.util.concurrent.atomic.AtomicBoolean running = new java.util.concurrent.atomic.AtomicBoolean(true);
+        java.util.concurrent.CountDownLatch ready = new java.util.concurrent.CountDownLatch(clients);
+        
+        // Clients are started evenly over the ramp so the gateway is not measured under a connection storm
+        long spacingNanos = TimeUnit.SECONDS.toNanos(rampSeconds) / Math.max(1, clients);
+        long rampStart = System.nanoTime();
+        try {
+            for (int i = 0; i < clients; i++) {
+                long wait = rampStart + i * spacingNanos - System.nanoTime();
+                if (wait > 0) {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                }
+                if (i < producers) {
+                    int client = i;
+                    if (pooled != null) {
+                        pooled.startProducer(client, topic, intervalMs, produceLatency, failures, ready);
+                    } else {
+                        executor.execute(() -> runFleetProducer(client, topic, intervalMs, running, produceLatency,
+                                                                failures, ready));
+                    }
+                } else {
+                    int client = i - producers;
+                    TopicPartition partition = new TopicPartition(topic, client % partitions);
+                    if (pooled != null) {
+                        pooled.startConsumer(client, partition, endToEndLatency, failures, ready);
+                    } else {
+                        executor.execute(() -> runFleetConsumer(client, partition, running, endToEndLatency,
+                                                                failures, ready));
+                    }
+                }
+            }
+            ready.await(rampSeconds + 60L, TimeUnit.SECONDS);
+            long connected = clients - ready.getCount();
+            logger.info("   {} of {} clients connected after {} ms", connected, clients,
+                       TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - rampStart));
+            
+            Map<String, Double> steady = averageConnectionSnapshots(scraper, Math.max(1, durationSeconds / 5), 5000);
+            running.set(false);
+            
+            double heapPerClient = perClientDelta(idle, steady, "jvm_memory_used_bytes_heap", clients);
+            double threadsPerClient = perClientDelta(idle, steady, "jvm_threads_live_threads", clients);
+            logger.info("✅ Client fleet results:");
+            logger.info("   Gateway heap: {} MB idle -> {} MB with {} clients ({} KB per client)",
+                       formatMegabytes(idle.get("jvm_memory_used_bytes_heap")),
+                       formatMegabytes(steady.get("jvm_memory_used_bytes_heap")), clients,
+                       heapPerClient < 0 ? "n/a" : String.format("%.1f", heapPerClient / 1024));
+            logger.info("   Gateway threads: {} idle -> {} ({} per client)", idle.get("jvm_threads_live_threads"),
+                       steady.get("jvm_threads_live_threads"),
+                       threadsPerClient < 0 ? "n/a" : String.format("%.3f", threadsPerClient));
+            for (Map.Entry<String, Double> metric : steady.entrySet()) {
+                if (metric.getKey().startsWith("kroxylicious_")) {
+                    logger.info("   {}: {} -> {}", metric.getKey(), idle.get(metric.getKey()), metric.getValue());
+                    results.metric("gateway." + metric.getKey() + ".steady", metric.getValue());
+                }
+            }
+            logger.info("   Produce latency:       {}", produceLatency.all().summary());
+            logger.info("   Per-producer mean:     {}", produceLatency.clientMeans().summary());
+            logger.info("   End-to-end latency:    {}", endToEndLatency.all().summary());
+            logger.info("   Per-consumer maximum:  {}", endToEndLatency.clientMaxima().summary());
+            logger.info("   Client failures: {}", failures.sum());
+            
+            results.context("client_threads", virtualThreads ? "virtual" : "pooled")
+                .parameter("clients.producers", producers)
+                .parameter("clients.consumers", consumers)
+                .metric("connected_clients.count", connected)
+                .metric("client_failures", failures.sum())
+                .metric("gateway.heap_bytes_per_client", heapPerClient)
+                .metric("gateway.threads_per_client", threadsPerClient)
+                .latency("produce", produceLatency.all())
+                .latency("produce.client_mean", produceLatency.clientMeans())
+                .latency("produce.client_max", produceLatency.clientMaxima())
+                .latency("end_to_end", endToEndLatency.all())
+                .latency("end_to_end.client_mean", endToEndLatency.clientMeans())
+                .latency("end_to_end.client_max", endToEndLatency.clientMaxima());
+            finishBenchmark(results);
+            
+            assertEquals(clients, connected, "Every simulated client should connect through the gateway");
+            assertTrue(produceLatency.all().count() > 0, "Producers should have records acknowledged");
+            assertTrue(endToEndLatency.activeClients() > 0, "Consumers should receive records");
+        } finally {
+            running.set(false);
+            if (pooled != null) {
+                pooled.close();
+            } else {
+                executor.shutdown();
+                if (!executor.awaitTermination(120, TimeUnit.SECONDS)) {
+                    executor.shutdownNow();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Returns a virtual-thread-per-task executor on JDK 21+, or null on older JDKs. Looked up
+     * reflectively so the suite still compiles and runs on Java 8.
+     */
+    private static java.util.concurrent.ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (java.util.concurrent.ExecutorService) java.util.concurrent.Executors.class
+                .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * One low-rate producer with its own connection. Latency is measured from each send to its ack.
+     */
+    private void runFleetProducer(int client, String topic, int intervalMs,
+                                  java.util.concurrent.atomic.AtomicBoolean running, PerClientLatency latency,
+                                  java.util.concurrent.atomic.LongAdder failures,
+                                  java.util.concurrent.CountDownLatch ready) {
+        Properties producerProps = new Properties();
+        producerProps.putAll(baseProps);
+        producerProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        producerProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        producerProps.put(ProducerConfig.CLIENT_ID_CONFIG, "fleet-producer-" + client);
+        producerProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        producerProps.put(ProducerConfig.LINGER_MS_CONFIG, 0);
+        
+        boolean counted = false;
+        byte[] value = new byte[100];
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMs);
+        try (Producer<byte[], byte[]> producer = new KafkaProducer<>(producerProps)) {
+            producer.partitionsFor(topic); // Connects before the client counts as ready
+            ready.countDown();
+            counted = true;
+            // Spread the sends of the fleet across the interval
+            long next = System.nanoTime() + (long) (Math.random() * intervalNanos);
+            while (running.get()) {
+                long wait = next - System.nanoTime();
+                if (wait > 0) {
+                    TimeUnit.NANOSECONDS.sleep(Math.min(wait, TimeUnit.MILLISECONDS.toNanos(500)));
+                    continue;
+                }
+                long sentAt = System.nanoTime();
+                producer.send(new ProducerRecord<>(topic, value), (metadata, exception) -> {
+                    if (exception != null) {
+                        failures.increment();
+                    } else {
+                        latency.recordNanos(client, System.nanoTime() - sentAt);
+                    }
+                });
+                next += intervalNanos;
+            }
+        } catch (Exception e) {
+            failures.increment();
+            logger.debug("Fleet producer {} stopped: {}", client, e.getMessage());
+        } finally {
+            if (!counted) {
+                ready.countDown();
+            }
+        }
+    }
+    
+    /**
+     * One consumer with its own connection, assigned a single partition from its end. Latency is measured
+     * from each record's create time to when it was polled.
+     */
+    private void runFleetConsumer(int client, TopicPartition partition,
+                                  java.util.concurrent.atomic.AtomicBoolean running, PerClientLatency latency,
+                                  java.util.concurrent.atomic.LongAdder failures,
+                                  java.util.concurrent.CountDownLatch ready) {
+        Properties consumerProps = new Properties();
+        consumerProps.putAll(baseProps);
+        consumerProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        consumerProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        consumerProps.put(ConsumerConfig.CLIENT_ID_CONFIG, "fleet-consumer-" + client);
+        consumerProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        
+        boolean counted = false;
+        try (Consumer<byte[], byte[]> consumer = new KafkaConsumer<>(consumerProps)) {
+            consumer.assign(Collections.singletonList(partition));
+            consumer.seekToEnd(Collections.singletonList(partition));
+            consumer.position(partition); // Connects before the client counts as ready
+            ready.countDown();
+            counted = true;
+            while (running.get()) {
+                ConsumerRecords<byte[], byte[]> polled = consumer.poll(Duration.ofMillis(1000));
+                long now = System.currentTimeMillis();
+                for (ConsumerRecord<byte[], byte[]> record : polled) {
+                    latency.recordNanos(client, TimeUnit.MILLISECONDS.toNanos(now - record.timestamp()));
+                }
+            }
+        } catch (Exception e) {
+            failures.increment();
+            logger.debug("Fleet consumer {} stopped: {}", client, e.getMessage());
+        } finally {
+            if (!counted) {
+                ready.countDown();
+            }
+        }
+    }
+    
+    /**
+     * Averages several gateway connection snapshots, since heap in use moves with every collection.
+     */
+    private static Map<String, Double> averageConnectionSnapshots(GatewayMetricsScraper scraper, int samples,
+                                                                  long intervalMs) throws InterruptedException {
+        Map<String, Double> totals = new java.util.TreeMap<>();
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < samples; i++) {
+            if (i > 0) {
+                Thread.sleep(intervalMs);
+            }
+            for (Map.Entry<String, Double> metric : scraper.connectionSnapshot().entrySet()) {
+                totals.merge(metric.getKey(), metric.getValue(), Double::sum);
+                counts.merge(metric.getKey(), 1, Integer::sum);
+            }
+        }
+        for (Map.Entry<String, Double> total : totals.entrySet()) {
+            total.setValue(total.getValue() / counts.get(total.getKey()));
+        }
+        return totals;
+    }
+    
+    private static double perClientDelta(Map<String, Double> idle, Map<String, Double> steady, String metric,
+                                         int clients) {
+        Double before = idle.get(metric);
+        Double after = steady.get(metric);
+        return before == null || after == null ? -1 : Math.max(0, after - before) / clients;
+    }
+    
+    private static String formatMegabytes(Double bytes) {
+        return bytes == null ? "n/a" : String.format("%.1f", bytes / (1024 * 1024));
+    }
+    
+    @Test
+    @Order(21)
+    @Tag("benchmark")
+    @DisplayName("Declarative Workload Benchmark")
+    public void testWorkloadFiles() throws Exception {
+        logger.info("📜 Running Declarative Workload Benchmark...");
+        
+        String location = benchmarkString("workload", "src/test/resources/workloads");
+        List<java.io.File> files = Workload.files(new java.io.File(location));
+        assertFalse(files.isEmpty(), "No workload files found at " + location + " (set -Dbenchmark.workload)");
+        
+        List<String> failed = new ArrayList<>();
+        for (java.io.File file : files) {
+            Workload workload = Workload.load(file);
+            if (!runWorkload(workload)) {
+                failed.add(workload.name);
+            }
+        }
+        assertTrue(failed.isEmpty(), "Workloads with failed sends or unconsumed records: " + failed);
+    }
+    
+    @Test
+    @Order(22)
+    @Tag("benchmark")
+    @DisplayName("Partition Skew Benchmark")
+    public void testPartitionSkew() throws Exception {
+        logger.info("🔥 Running Partition Skew Benchmark...");
+        
+        int partitions = benchmarkInt("skew.partitions", 12);
+        int producers = benchmarkInt("skew.producers", 2);
+        int rate = benchmarkInt("skew.rate", 5000);
+        int recordSize = benchmarkInt("skew.record.size", 512);
+        int cardinality = benchmarkInt("skew.keys", 10000);
+        int durationSeconds = benchmarkInt("skew.duration.seconds", 30);
+        double exponent = Double.parseDouble(benchmarkString("skew.zipf.exponent", "0.99"));
+        int hotKeys = benchmarkInt("skew.hot.keys", 1);
+        double hotFraction = Double.parseDouble(benchmarkString("skew.hot.fraction", "0.5"));
+        String[] distributions = benchmarkString("skew.distributions", "uniform,zipfian,hotkey").split(",");
+        
+        BenchmarkResults results = startBenchmark("partition-skew");
+        long producedRecords = 0;
+        for (String distribution : distributions) {
+            distribution = distribution.trim();
+            com.fasterxml.jackson.databind.node.ObjectNode spec = Workload.newSpec()
+                .put("name", "partition-skew-" + distribution)
+                .put("duration_seconds", durationSeconds)
+                .put("warmup_seconds", 5);
+            com.fasterxml.jackson.databind.node.ObjectNode topic = spec.putArray("topics").addObject()
+                .put("name", "skew-" + distribution)
+                .put("partitions", partitions)
+                .put("producers", producers)
+                .put("consumers", 0)
+                .put("rate", rate);
+            topic.putObject("record_size").put("distribution", "fixed").put("size", recordSize);
+            topic.putObject("keys")
+                .put("distribution", distribution)
+                .put("cardinality", cardinality)
+                .put("exponent", exponent)
+                .put("hot_keys", hotKeys)
+                .put("hot_fraction", hotFraction);
+            Workload workload = Workload.fromJson(spec);
+            logger.info("📜 {}", workload);
+            
+            Properties clientProps = new Properties();
+            clientProps.putAll(baseProps);
+            WorkloadRun run = executeWorkload(workload, clientProps);
+            WorkloadTopicStats stats = run.stats.get(0);
+            producedRecords += stats.produced.totalRecords();
+            reportWorkloadTopic(results, distribution, workload.topics.get(0), stats, run.measuredSeconds,
+                                partitionLeaders(clientProps, run.topics.get(0)));
+        }
+        finishBenchmark(results);
+        assertTrue(producedRecords > 0, "No records were produced");
+    }
+    
+    @Test
+    @Order(23)
+    @Tag("benchmark")
+    @DisplayName("Schema Validation Benchmark")
+    public void testSchemaValidation() throws Exception {
+        logger.info("🧾 Running Schema Validation Benchmark...");
+        
+        int registryPort = benchmarkInt("schema.registry.port", 8081);
+        String[] formats = benchmarkString("schema.formats", "avro,json,protobuf").split(",");
+        String[] levels = benchmarkString("schema.levels", "none,id,schema,schema_rules").split(",");
+        int recordSize = benchmarkInt("schema.record.size", 1024);
+        int partitions = benchmarkInt("schema.partitions", 6);
+        int warmupSeconds = benchmarkInt("schema.warmup.seconds", 5);
+        int durationSeconds = benchmarkInt("schema.duration.seconds", 20);
+        
+        BenchmarkResults results = startBenchmark("schema-validation");
+        long failures = 0;
+        List<String> unenforced = new ArrayList<>();
+        List<String> inconclusive = new ArrayList<>();
+        try (SchemaRegistryStub registry = SchemaRegistryStub.start(registryPort)) {
+            logger.info("🗂️ Schema Registry stub listening on port {}", registry.port());
+            for (String formatName : formats) {
+                SchemaFormat format = SchemaFormat.of(formatName);
+                double baselineMicrosPerRecord = -1;
+                double baselineP99 = -1;
+                for (String level : levels) {
+                    level = level.trim().toLowerCase(java.util.Locale.ROOT);
+                    String topic = schemaValidationTopic(level, format);
+                    String label = format.label() + "." + level;
+                    int schemaId = registry.register(topic + "-value", format.schemaType, format.schema);
+                    ensureBenchmarkTopic(baseProps, topic, partitions);
+                    
+                    SchemaIdProbe probe = probeUnknownSchemaId(baseProps, topic, format);
+                    boolean validating = probe == SchemaIdProbe.REJECTED;
+                    if (probe == SchemaIdProbe.INCONCLUSIVE) {
+                        inconclusive.add(label + " (" + topic + ")");
+                    }
+                    byte[][] records = format.records(schemaId, benchmarkInt("payload.pool.size", 64), recordSize,
+                                                      topic.hashCode());
+                    LatencyRecorder latency = new LatencyRecorder();
+                    java.util.concurrent.atomic.LongAdder bytes = new java.util.concurrent.atomic.LongAdder();
+                    java.util.concurrent.atomic.LongAdder topicFailures = new java.util.concurrent.atomic.LongAdder();
+                    double seconds = runSchemaValidationProducer(baseProps, topic, records, warmupSeconds,
+                                                                 durationSeconds, latency, bytes, topicFailures);
+                    failures += topicFailures.sum();
+                    if (probe == SchemaIdProbe.ACCEPTED && !"none".equals(level)) {
+                        unenforced.add(label + " (" + topic + ")");
+                    }
+                    
+                    double recordsPerSec = latency.count() / seconds;
+                    double microsPerRecord = recordsPerSec > 0 ? 1_000_000.0 / recordsPerSec : -1;
+                    double p99 = latency.percentileMillis(99);
+                    if ("none".equals(level)) {
+                        baselineMicrosPerRecord = microsPerRecord;
+                        baselineP99 = p99;
+                    }
+                    logger.info("   {} {} ({}): {} records/s, {} MB/s, p99 {} ms, failures {}{}", format.label(),
+                               level, topic, String.format("%.1f", recordsPerSec),
+                               String.format("%.2f", bytes.sum() / seconds / (1024 * 1024)),
+                               String.format("%.2f", p99), topicFailures.sum(),
+                               probe == SchemaIdProbe.INCONCLUSIVE ? " ⚠️ validation probe inconclusive"
+                                   : validating || "none".equals(level) ? "" : " ⚠️ unknown schema ids were accepted");
+                    results.metric(label + ".records_per_sec", recordsPerSec)
+                        .metric(label + ".mbps", bytes.sum() / seconds / (1024 * 1024))
+                        .metric(label + ".failures", topicFailures.sum())
+                        .metric(label + ".validating.count", validating ? 1 : 0)
+                        .latency(label + ".produce", latency);
+                    if (baselineMicrosPerRecord > 0 && microsPerRecord > 0 && !"none".equals(level)) {
+                        results.metric(label + ".added_us_per_record", microsPerRecord - baselineMicrosPerRecord)
+                            .metric(label + ".added_p99_ms", p99 - baselineP99);
+                    }
+                }
+            }
+        }
+        finishBenchmark(results);
+        assertEquals(0, failures, "Valid records were rejected or failed; check the gateway's schemaValidation config");
+        // A level that lets an unknown schema id through measured a passthrough route, not validation
+        assertTrue(inconclusive.isEmpty(), "The unknown schema id probe neither succeeded nor was rejected as an "
+                   + "invalid record on " + inconclusive + "; the route or registry is not working");
+        assertTrue(unenforced.isEmpty(), "Unknown schema ids were accepted by " + unenforced
+                   + "; run with docker-compose-schema-validation.yml (./version-compatibility.sh --schema-validation)");
+    }
+    
+    /**
+     * The topic the gateway config maps to a validation level, e.g. "sv-schema-rules-avro".
+     * docker-compose-schema-validation.yml lists every level and format combination under
+     * schemaValidation.topics.
+     */
+    private static String schemaValidationTopic(String level, SchemaFormat format) {
+        return "sv-" + level.replace('_', '-') + "-" + format.label();
+    }
+    
+    /**
+     * Creates a topic unless it already exists, for benchmarks whose topic names are fixed by gateway config.
+     */
+    private void ensureBenchmarkTopic(Properties clientProps, String topic, int partitions) throws Exception {
+        try {
+            createBenchmarkTopic(clientProps, topic, partitions);
+        } catch (ExecutionException e) {
+            if (!(e.getCause() instanceof org.apache.kafka.common.errors.TopicExistsException)) {
+                throw e;
+            }
+        }
+    }
+    
+    /**
+     * Outcome of sending one record with an unregistered schema id.
+     */
+    private enum SchemaIdProbe {
+        /** The gateway rejected it as an invalid record: the level is enforced. */
+        REJECTED,
+        /** It was written: the topic is not validated. */
+        ACCEPTED,
+        /** Any other failure (timeout, leadership, authorization, registry): says nothing about validation. */
+        INCONCLUSIVE
+    }
+    
+    /**
+     * Sends one record that names an unregistered schema id. A validating topic rejects it with
+     * INVALID_RECORD, so this shows whether the level under test is actually being enforced.
+     */
+    private SchemaIdProbe probeUnknownSchemaId(Properties clientProps, String topic, SchemaFormat format) {
+        Properties producerProps = new Properties();
+        producerProps.putAll(clientProps);
+        producerProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        producerProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        producerProps.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, 30000);
+        producerProps.put(ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, 15000);
+        byte[] invalid = format.encode(Integer.MAX_VALUE, 1, "customer-0", 1.0, "");
+        try (Producer<byte[], byte[]> producer = new KafkaProducer<>(producerProps)) {
+            producer.send(new ProducerRecord<>(topic, invalid)).get(45, TimeUnit.SECONDS);
+            return SchemaIdProbe.ACCEPTED;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof org.apache.kafka.common.InvalidRecordException) {
+                logger.debug("Unknown schema id rejected on {}: {}", topic, e.getCause().toString());
+                return SchemaIdProbe.REJECTED;
+            }
+            logger.warn("⚠️ Validation probe on {} failed for another reason: {}", topic, e.getCause().toString());
+            return SchemaIdProbe.INCONCLUSIVE;
+        } catch (Exception e) {
+            logger.warn("⚠️ Validation probe on {} did not complete: {}", topic, e.getMessage());
+            return SchemaIdProbe.INCONCLUSIVE;
+        }
+    }
+    
+    /**
+     * Sends pre-encoded records as fast as the in-flight window allows and records latency from send
+     * to ack after the warm-up. Returns the measured window in seconds: from the end of the warm-up
+     * until the last measured record was acknowledged.
+     */
+    private double runSchemaValidationProducer(Properties clientProps, String topic, byte[][] records,
+                                               int warmupSeconds, int durationSeconds, LatencyRecorder latency,
+                                               java.util.concurrent.atomic.LongAdder bytes,
+                                               java.util.concurrent.atomic.LongAdder failures) throws Exception {
+        Properties producerProps = new Properties();
+        producerProps.putAll(clientProps);
+        producerProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        producerProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        producerProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        producerProps.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+        
+        long measureFromNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long endNanos = measureFromNanos + TimeUnit.SECONDS.toNanos(durationSeconds);
+        long sent = 0;
+        long measuredNanos;
+        try (Producer<byte[], byte[]> producer = new KafkaProducer<>(producerProps)) {
+            AsyncSendDriver<byte[], byte[]> driver = new AsyncSendDriver<>(producer, SEND_WINDOW);
+            long allocatedBefore = HarnessAllocationMeter.currentThreadAllocatedBytes();
+            long now;
+            while ((now = System.nanoTime()) < endNanos) {
+                long sendNanos = now;
+                byte[] value = records[(int) (sent % records.length)];
+                boolean measured = sendNanos >= measureFromNanos;
+                driver.send(new ProducerRecord<>(topic, value), (metadata, exception) -> {
+                    if (exception != null) {
+                        failures.increment();
+                    } else if (measured) {
+                        latency.recordNanos(System.nanoTime() - sendNanos);
+                        bytes.add(value.length);
+                    }
+                });
+                sent++;
+            }
+            harnessAllocation.addGenerator(allocatedBefore, HarnessAllocationMeter.currentThreadAllocatedBytes(), sent);
+            if (!driver.awaitCompletion(60, TimeUnit.SECONDS)) {
+                logger.warn("⚠️ Schema validation producer for {} still had records in flight after 60s", topic);
+            }
+            measuredNanos = System.nanoTime() - measureFromNanos;
+            if (driver.failed() > 0) {
+                logger.warn("⚠️ {} sends to {} failed, first: {}", driver.failed(), topic,
+                           driver.failures().isEmpty() ? "n/a" : driver.failures().get(0).toString());
+            }
+        }
+        return measuredNanos / 1_000_000_000.0;
+    }
+    
+    @Test
+    @Order(24)
+    @Tag("benchmark")
+    @DisplayName("Gateway Encryption Benchmark")
+    public void testEncryption() throws Exception {
+        logger.info("🔐 Running Gateway Encryption Benchmark...");
+        
+        int registryPort = benchmarkInt("schema.registry.port", 8081);
+        String[] modes = benchmarkString("encryption.modes", "plain,field,payload").split(",");
+        String[] recordSizes = benchmarkString("encryption.record.sizes", "256,1024,8192").split(",");
+        String[] fieldCounts = benchmarkString("encryption.fields", "1,4").split(",");
+        int partitions = benchmarkInt("encryption.partitions", 6);
+        int warmupSeconds = benchmarkInt("encryption.warmup.seconds", 5);
+        int durationSeconds = benchmarkInt("encryption.duration.seconds", 15);
+        String brokerServers = benchmarkString("encryption.broker.bootstrap.servers", "kafka-server:9092");
+        
+        BenchmarkResults results = startBenchmark("encryption");
+        GatewayMetricsScraper scraper = gatewayMetricsScraper();
+        Map<String, Double> plainP99 = new HashMap<>();
+        List<String> notEncrypted = new ArrayList<>();
+        long failures = 0;
+        try (SchemaRegistryStub registry = SchemaRegistryStub.start(registryPort)) {
+            logger.info("🗂️ Schema Registry stub listening on port {}", registry.port());
+            for (String sizeText : recordSizes) {
+                int recordSize = Integer.parseInt(sizeText.trim());
+                for (String fieldsText : fieldCounts) {
+                    int fields = Integer.parseInt(fieldsText.trim());
+                    for (String mode : modes) {
+                        mode = mode.trim();
+                        String topic = "enc-" + mode;
+                        String label = mode + "." + recordSize + "b." + fields + "f";
+                        ensureBenchmarkTopic(baseProps, topic, partitions);
+                        int schemaId = registerEncryptionSchema(registry, topic + "-value", mode, fields);
+                        byte[][] records = encryptionRecords(schemaId, fields, recordSize,
+                                                             benchmarkInt("payload.pool.size", 64), label.hashCode());
+                        
+                        double cpuBefore = scraper.processCpuSeconds();
+                        WorkloadTopicStats stats = runEncryptionCell(topic, label, records, partitions, warmupSeconds,
+                                                                     durationSeconds);
+                        double cpuAfter = scraper.processCpuSeconds();
+                        failures += stats.failures.sum();
+                        
+                        long produced = stats.produced.totalRecords();
+                        double produceMBps = stats.producedBytes.sum() / (double) durationSeconds / (1024 * 1024);
+                        double consumeMBps = stats.consumedBytes.sum() / (double) durationSeconds / (1024 * 1024);
+                        LatencyRecorder produceLatency = stats.produced.combined();
+                        double p99 = produceLatency.percentileMillis(99);
+                        // Gateway CPU covers the warm-up and drain as well, so it is divided by every record
+                        long allRecords = stats.ackedAll.sum() + stats.consumedAll.sum();
+                        double cpuMicrosPerRecord = cpuBefore >= 0 && cpuAfter >= cpuBefore && allRecords > 0
+                            ? (cpuAfter - cpuBefore) * 1_000_000 / allRecords : -1;
+                        int encryptedAtBroker = encryptedAtBroker(brokerServers, topic, records);
+                        if (!"plain".equals(mode) && encryptedAtBroker != 1) {
+                            notEncrypted.add(label);
+                        }
+                        logger.info("   {}: produced {} records/s ({} MB/s), consumed {} MB/s, p99 {} ms, "
+                                   + "end-to-end p99 {} ms, gateway CPU {} µs/record, stored {}", label,
+                                   String.format("%.1f", produced / (double) durationSeconds),
+                                   String.format("%.2f", produceMBps), String.format("%.2f", consumeMBps),
+                                   String.format("%.2f", p99),
+                                   String.format("%.2f", stats.endToEndLatency.percentileMillis(99)),
+                                   cpuMicrosPerRecord < 0 ? "n/a" : String.format("%.1f", cpuMicrosPerRecord),
+                                   encryptedAtBroker < 0 ? "unchecked" : encryptedAtBroker == 1 ? "encrypted" : "as sent");
+                        results.metric(label + ".produce_records_per_sec", produced / (double) durationSeconds)
+                            .metric(label + ".produce_mbps", produceMBps)
+                            .metric(label + ".consume_mbps", consumeMBps)
+                            .metric(label + ".failures", stats.failures.sum())
+                            .metric(label + ".gateway_cpu_us_per_record", cpuMicrosPerRecord)
+                            .metric(label + ".encrypted_at_broker.count", encryptedAtBroker)
+                            .latency(label + ".produce", produceLatency)
+                            .latency(label + ".end_to_end", stats.endToEndLatency);
+                        String baseline = recordSize + "b." + fields + "f";
+                        if ("plain".equals(mode)) {
+                            plainP99.put(baseline, p99);
+                        } else if (plainP99.containsKey(baseline)) {
+                            results.metric(label + ".added_p99_ms", p99 - plainP99.get(baseline));
+                        }
+                    }
+                }
+            }
+        }
+        finishBenchmark(results);
+        assertEquals(0, failures, "Records failed; check the gateway's schemaValidation and rule executor config");
+        assertTrue(notEncrypted.isEmpty(), "Records were not confirmed encrypted at the broker for " + notEncrypted
+                   + "; run with docker-compose-schema-validation.yml (./version-compatibility.sh --encryption)");
+    }
+    
+    /**
+     * Registers the encryption benchmark's Avro schema under a subject: a long id and one string field
+     * per encrypted field, all tagged PII. "field" adds an ENCRYPT rule on that tag, "payload" an
+     * ENCRYPT_PAYLOAD rule, and "plain" no rules, so the three differ only in what the gateway does.
+     */
+    private static int registerEncryptionSchema(SchemaRegistryStub registry, String subject, String mode, int fields) {
+        String[] names = new String[fields];
+        for (int f = 0; f < fields; f++) {
+            names[f] = "secret" + f;
+        }
+        String schema = SchemaFormat.avroSchema("Payment", names, fields, "PII");
+        com.fasterxml.jackson.databind.node.ObjectNode ruleSet = Workload.newSpec();
+        com.fasterxml.jackson.databind.node.ObjectNode rule;
+        switch (mode) {
+            case "plain":
+                return registry.register(subject, "AVRO", schema);
+            case "field":
+                rule = ruleSet.putArray("domainRules").addObject().put("name", "encryptPII").put("type", "ENCRYPT");
+                rule.putArray("tags").add("PII");
+                break;
+            case "payload":
+                rule = ruleSet.putArray("encodingRules").addObject().put("name", "encryptPayload")
+                    .put("type", "ENCRYPT_PAYLOAD");
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown encryption mode '" + mode + "' (plain, field, payload)");
+        }
+        rule.put("kind", "TRANSFORM").put("mode", "WRITEREAD");
+        rule.putObject("params")
+            .put("encrypt.kek.name", "benchmark-kek-" + mode)
+            .put("encrypt.kms.type", "local-kms")
+            .put("encrypt.kms.key.id", "benchmark-key");
+        return registry.register(subject, "AVRO", schema, ruleSet);
+    }
+    
+    /**
+     * Records for {@link #registerEncryptionSchema} with the bytes beyond the id split evenly across
+     * the encrypted fields, so field and payload encryption cover about the same number of bytes.
+     */
+    private static byte[][] encryptionRecords(int schemaId, int fields, int recordSize, int entries, long seed) {
+        Random random = new Random(seed);
+        byte[][] records = new byte[entries][];
+        int fieldLength = Math.max(1, (recordSize - 16) / fields);
+        for (int i = 0; i < entries; i++) {
+            String[] values = new String[fields];
+            for (int f = 0; f < fields; f++) {
+                values[f] = SchemaFormat.letters(random, fieldLength);
+            }
+            records[i] = SchemaFormat.avroRecord(schemaId, random.nextLong() & Long.MAX_VALUE, values);
+        }
+        return records;
+    }
+    
+    /**
+     * Produces the records unthrottled to a topic while one consumer reads it back from the end, and
+     * returns the stats of the measured window. The topic is shared between cells, so the consumer
+     * starts from the latest offset in a group of its own.
+     */
+    private WorkloadTopicStats runEncryptionCell(String topic, String label, byte[][] records, int partitions,
+                                                 int warmupSeconds, int durationSeconds) throws Exception {
+        com.fasterxml.jackson.databind.node.ObjectNode spec = Workload.newSpec().put("name", "encryption");
+        spec.putArray("topics").addObject().put("name", topic).put("partitions", partitions).put("rate", 0);
+        Workload.TopicLoad load = Workload.fromJson(spec).topics.get(0);
+        WorkloadTopicStats stats = new WorkloadTopicStats(partitions);
+        
+        long startNanos = System.nanoTime();
+        long measureFromNanos = startNanos + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long endNanos = measureFromNanos + TimeUnit.SECONDS.toNanos(durationSeconds);
+        long measureFromMillis = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(warmupSeconds);
+        java.util.concurrent.atomic.AtomicBoolean consuming = new java.util.concurrent.atomic.AtomicBoolean(true);
+        String group = "encryption-" + label + "-" + System.currentTimeMillis();
+        Thread consumer = new Thread(() -> runWorkloadConsumer(baseProps, topic, group, "latest", measureFromMillis,
+                                                               consuming, stats),
+                                     "encryption-consumer-" + label);
+        consumer.start();
+        runWorkloadProducer(baseProps, load, topic, new PayloadPool(records), label.hashCode(), 0,
+                            startNanos, measureFromNanos, endNanos, stats);
+        
+        // Give the consumer until it stops making progress to read the tail of the run
+        long drainDeadline = System.currentTimeMillis() + 30000;
+        long lastConsumed = -1;
+        while (stats.consumedAll.sum() != lastConsumed && System.currentTimeMillis() < drainDeadline) {
+            lastConsumed = stats.consumedAll.sum();
+            Thread.sleep(1000);
+        }
+        consuming.set(false);
+        consumer.join(30000);
+        return stats;
+    }
+    
+    /**
+     * Reads the last few records of each partition straight from the broker, bypassing the gateway.
+     * Returns 1 if none of them is one of the records as sent (the gateway rewrote them), 0 if any
+     * arrived unchanged, and -1 if the broker could not be read.
+     */
+    private int encryptedAtBroker(String brokerServers, String topic, byte[][] sent) {
+        Set<java.nio.ByteBuffer> plaintext = new HashSet<>();
+        for (byte[] record : sent) {
+            plaintext.add(java.nio.ByteBuffer.wrap(record));
+        }
+        Properties consumerProps = new Properties();
+        consumerProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, brokerServers);
+        consumerProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        consumerProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        consumerProps.put(ConsumerConfig.DEFAULT_API_TIMEOUT_MS_CONFIG, 10000);
+        try (Consumer<byte[], byte[]> consumer = new KafkaConsumer<>(consumerProps)) {
+            List<TopicPartition> partitions = new ArrayList<>();
+            for (org.apache.kafka.common.PartitionInfo partition
+                    : consumer.partitionsFor(topic, Duration.ofSeconds(10))) {
+                partitions.add(new TopicPartition(topic, partition.partition()));
+            }
+            consumer.assign(partitions);
+            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions, Duration.ofSeconds(10));
+            for (TopicPartition partition : partitions) {
+                consumer.seek(partition, Math.max(0, endOffsets.get(partition) - 10));
+            }
+            int checked = 0;
+            long deadline = System.currentTimeMillis() + 10000;
+            while (checked < 10 && System.currentTimeMillis() < deadline) {
+                for (ConsumerRecord<byte[], byte[]> record : consumer.poll(Duration.ofMillis(500))) {
+                    if (plaintext.contains(java.nio.ByteBuffer.wrap(record.value()))) {
+                        return 0;
+                    }
+                    checked++;
+                }
+            }
+            return checked > 0 ? 1 : -1;
+        } catch (Exception e) {
+            logger.warn("⚠️ Could not read {} from the broker at {}: {}", topic, brokerServers, e.getMessage());
+            return -1;
+        }
+    }
+    
+    @Test
+    @Order(25)
+    @Tag("benchmark")
+    @DisplayName("Schema Registry Lookup Benchmark")
+    public void testSchemaRegistryLookups() throws Exception {
+        logger.info("🔎 Running Schema Registry Lookup Benchmark...");
+        
+        int registryPort = benchmarkInt("schema.registry.port", 8081);
+        String level = benchmarkString("lookups.level", "id");
+        int schemas = benchmarkInt("lookups.schemas", 10);
+        int rate = benchmarkInt("lookups.rate", 1000);
+        int durationSeconds = benchmarkInt("lookups.duration.seconds", 20);
+        int partitions = benchmarkInt("lookups.partitions", 6);
+        int slowDelayMillis = benchmarkInt("lookups.slow.delay.ms", 200);
+        double maxWarmCallsPerRecord = Double.parseDouble(benchmarkString("lookups.max.calls.per.record", "0.01"));
+        String topic = schemaValidationTopic(level, SchemaFormat.AVRO);
+        ensureBenchmarkTopic(baseProps, topic, partitions);
+        
+        BenchmarkResults results = startBenchmark("registry-lookups");
+        // Ids new to the gateway on every run, so its cache cannot answer the cold phases from a previous run
+        int firstId = 100000 + (int) (System.currentTimeMillis() / 1000 % 1_000_000) * 1000;
+        java.util.concurrent.atomic.LongAdder failures = new java.util.concurrent.atomic.LongAdder();
+        double warmCallsPerRecord;
+        try (SchemaRegistryStub registry = SchemaRegistryStub.start(registryPort, firstId)) {
+            logger.info("🗂️ Schema Registry stub listening on port {}, {} schemas on {} ({} level)", registry.port(),
+                       schemas, topic, level);
+            byte[][] records = registryLookupRecords(registry, topic, "Order", schemas);
+            runRegistryLookupPhase(results, "cold", registry, topic, records, schemas, partitions, rate,
+                                   durationSeconds, failures);
+            warmCallsPerRecord = runRegistryLookupPhase(results, "warm", registry, topic, records, schemas, partitions,
+                                                        rate, durationSeconds, failures);
+            
+            registry.responseDelay(slowDelayMillis);
+            byte[][] slowRecords = registryLookupRecords(registry, topic, "SlowOrder", schemas);
+            runRegistryLookupPhase(results, "slow", registry, topic, slowRecords, schemas, partitions, rate,
+                                   durationSeconds, failures);
+        }
+        finishBenchmark(results);
+        assertEquals(0, failures.sum(), "Records failed; check the gateway's schemaValidation config");
+        assertTrue(warmCallsPerRecord <= maxWarmCallsPerRecord,
+                   String.format("Gateway made %.3f registry calls per record for already-seen schemas (limit %.3f); "
+                                 + "schema lookups do not appear to be cached", warmCallsPerRecord, maxWarmCallsPerRecord));
+    }
+    
+    /**
+     * Registers one Avro schema per record name prefix and index under the topic's subject, and builds
+     * records that cycle through them.
+     */
+    private static byte[][] registryLookupRecords(SchemaRegistryStub registry, String topic, String name, int schemas) {
+        Random random = new Random(name.hashCode());
+        byte[][] records = new byte[schemas * 4][];
+        int[] ids = new int[schemas];
+        for (int s = 0; s < schemas; s++) {
+            ids[s] = registry.register(topic + "-value", "AVRO",
+                                       SchemaFormat.avroSchema(name + s, new String[]{"customer", "note"}, 0, "PII"));
+        }
+        for (int i = 0; i < records.length; i++) {
+            records[i] = SchemaFormat.avroRecord(ids[i % schemas], i, "customer-" + random.nextInt(100000),
+                                                 SchemaFormat.letters(random, 200));
+        }
+        return records;
+    }
+    
+    /**
+     * Produces the records at a fixed rate with every record measured, then reports how many registry
+     * requests the gateway made for them. Only schema-by-id requests count as cache misses: the records
+     * reference {@code schemas} distinct ids, so a cold cache misses about once per schema and a warm one
+     * not at all. Returns registry calls per record, or -1 if nothing was produced.
+     */
+    private double runRegistryLookupPhase(BenchmarkResults results, String phase, SchemaRegistryStub registry,
+                                          String topic, byte[][] records, int schemas, int partitions, int rate,
+                                          int durationSeconds, java.util.concurrent.atomic.LongAdder failures) {
+        com.fasterxml.jackson.databind.node.ObjectNode spec = Workload.newSpec().put("name", "registry-lookups");
+        spec.putArray("topics").addObject().put("name", topic).put("partitions", partitions).put("rate", rate);
+        Workload.TopicLoad load = Workload.fromJson(spec).topics.get(0);
+        WorkloadTopicStats stats = new WorkloadTopicStats(partitions);
+        
+        registry.resetCounts();
+        long startNanos = System.nanoTime();
+        runWorkloadProducer(baseProps, load, topic, new PayloadPool(records), phase.hashCode(), rate, startNanos,
+                            startNanos, startNanos + TimeUnit.SECONDS.toNanos(durationSeconds), stats);
+        long produced = stats.produced.totalRecords();
+        long calls = registry.requests();
+        Map<String, Long> byEndpoint = registry.requestsByEndpoint();
+        long idLookups = byEndpoint.getOrDefault("GET schemas/ids/{}", 0L);
+        double callsPerRecord = produced == 0 ? -1 : calls / (double) produced;
+        double idLookupsPerSchema = idLookups / (double) schemas;
+        // Not clamped: a negative ratio means more than one id lookup per record
+        double hitRatio = produced == 0 ? -1 : 1.0 - idLookups / (double) produced;
+        LatencyRecorder latency = stats.produced.combined();
+        
+        logger.info("   {}: {} records, {} registry calls ({} per record), {} id lookups for {} schemas "
+                   + "(cache hit ratio {}), produce p99 {} ms, max {} ms, registry service p99 {} ms", phase, produced,
+                   calls, String.format("%.4f", callsPerRecord), idLookups, schemas, String.format("%.4f", hitRatio),
+                   String.format("%.2f", latency.percentileMillis(99)), String.format("%.2f", latency.maxMillis()),
+                   String.format("%.2f", registry.serviceTime().percentileMillis(99)));
+        for (Map.Entry<String, Long> endpoint : byEndpoint.entrySet()) {
+            logger.info("      {} x{}", endpoint.getKey(), endpoint.getValue());
+            results.detail(phase + ".requests." + endpoint.getKey(), endpoint.getValue());
+        }
+        results.metric(phase + ".registry_calls_per_record", callsPerRecord)
+            .metric(phase + ".id_lookups_per_schema", idLookupsPerSchema)
+            .metric(phase + ".cache_hit_ratio", hitRatio)
+            .metric(phase + ".registry_calls.count", calls)
+            .metric(phase + ".failures", stats.failures.sum())
+            .latency(phase + ".produce", latency)
+            .latency(phase + ".registry_service", registry.serviceTime());
+        failures.add(stats.failures.sum());
+        return callsPerRecord;
+    }
+
+    @Test
+    @Order(26)
+    @Tag("benchmark")
+    @DisplayName("Gateway Authentication Swapping Benchmark")
+    public void testAuthSwap() throws Exception {
+        logger.info("🔑 Running Gateway Authentication Swapping Benchmark...");
+
+        String[] routes = benchmarkString("authswap.routes", "passthrough,scram,mtls").split(",");
+        int connections = benchmarkInt("authswap.connections", 100);
+        int partitions = benchmarkInt("authswap.partitions", 6);
+        int producers = benchmarkInt("authswap.producers", 2);
+        int rate = benchmarkInt("authswap.rate", 0);
+        int recordSize = benchmarkInt("authswap.record.size", 1024);
+        int warmupSeconds = benchmarkInt("authswap.warmup.seconds", 5);
+        int durationSeconds = benchmarkInt("authswap.duration.seconds", 20);
+
+        BenchmarkResults results = startBenchmark("auth-swap");
+        GatewayMetricsScraper scraper = gatewayMetricsScraper();
+        double passthroughCpuPerConnection = -1;
+        double passthroughCores = -1;
+        boolean healthy = true;
+        for (String route : routes) {
+            route = route.trim();
+            Properties clientProps = authSwapProps(route);
+            if ("scram".equals(route)) {
+                upsertScramCredential(clientProps);
+            }
+
+            LatencyRecorder connect = new LatencyRecorder();
+            double cpuBefore = scraper.processCpuSeconds();
+            int connectFailures = measureConnectionSetup(clientProps, connections, connect);
+            double cpuAfter = scraper.processCpuSeconds();
+            int connected = connections - connectFailures;
+            double cpuMillisPerConnection = cpuBefore >= 0 && cpuAfter >= cpuBefore && connected > 0
+                ? (cpuAfter - cpuBefore) * 1000 / connected : -1;
+
+            // Steady state: the same produce/consume workload on every route
+            com.fasterxml.jackson.databind.node.ObjectNode spec = Workload.newSpec().put("name", "auth-swap-" + route)
+                .put("warmup_seconds", warmupSeconds).put("duration_seconds", durationSeconds);
+            spec.putArray("topics").addObject().put("name", "authswap-" + route).put("partitions", partitions)
+                .put("producers", producers).put("rate", rate).putObject("record_size").put("size", recordSize);
+            Workload workload = Workload.fromJson(spec);
+            long startNanos = System.nanoTime();
+            cpuBefore = scraper.processCpuSeconds();
+            WorkloadRun run = executeWorkload(workload, clientProps);
+            cpuAfter = scraper.processCpuSeconds();
+            double elapsedSeconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+            WorkloadTopicStats stats = run.stats.get(0);
+            long records = stats.ackedAll.sum() + stats.consumedAll.sum();
+            double cores = cpuBefore >= 0 && cpuAfter >= cpuBefore ? (cpuAfter - cpuBefore) / elapsedSeconds : -1;
+            double cpuMicrosPerRecord = cores >= 0 && records > 0 ? (cpuAfter - cpuBefore) * 1_000_000 / records : -1;
+
+            logger.info("   {}: connection setup p50 {} ms, p99 {} ms, max {} ms, gateway CPU {} ms/connection, "
+                       + "{} failed", route, String.format("%.2f", connect.percentileMillis(50)),
+                       String.format("%.2f", connect.percentileMillis(99)), String.format("%.2f", connect.maxMillis()),
+                       cpuMillisPerConnection < 0 ? "n/a" : String.format("%.2f", cpuMillisPerConnection),
+                       connectFailures);
+            reportWorkloadTopic(results, route, workload.topics.get(0), stats, run.measuredSeconds,
+                                partitionLeaders(clientProps, run.topics.get(0)));
+            logger.info("      gateway CPU {} cores ({} µs/record produced or consumed)",
+                       cores < 0 ? "n/a" : String.format("%.3f", cores),
+                       cpuMicrosPerRecord < 0 ? "n/a" : String.format("%.1f", cpuMicrosPerRecord));
+            results.metric(route + ".connect_failures", connectFailures)
+                .metric(route + ".gateway_cpu_ms_per_connection", cpuMillisPerConnection)
+                .metric(route + ".gateway_cpu_cores", cores)
+                .metric(route + ".gateway_cpu_us_per_record", cpuMicrosPerRecord)
+                .latency(route + ".connect", connect);
+            if ("passthrough".equals(route)) {
+                passthroughCpuPerConnection = cpuMillisPerConnection;
+                passthroughCores = cores;
+            } else {
+                if (passthroughCpuPerConnection >= 0 && cpuMillisPerConnection >= 0) {
+                    results.metric(route + ".added_cpu_ms_per_connection",
+                                   cpuMillisPerConnection - passthroughCpuPerConnection);
+                }
+                if (passthroughCores >= 0 && cores >= 0) {
+                    results.metric(route + ".added_gateway_cpu_cores", cores - passthroughCores);
+                }
+            }
+            if (!run.drained) {
+                logger.warn("   ⚠️ Consumers on {} did not read back every acknowledged record within 60s", route);
+            }
+            healthy &= connectFailures == 0 && run.healthy();
+        }
+        finishBenchmark(results);
+        assertTrue(healthy, "Connections or records failed on an auth-swap route; check the gateway's swapConfig "
+                            + "and the Vault secrets in docker-compose-authswap-kraft.yml");
+    }
+
+    /**
+     * Client properties for one docker-compose-authswap-kraft.yml route. Passthrough authenticates to the
+     * broker directly as benchmark.authswap.broker.user; scram, mtls and reauth (PLAIN with a short
+     * gateway re-authentication interval) authenticate to the gateway as bench_user, which the gateway
+     * swaps for that same broker user, so every route reaches the broker alike.
+     */
+    private Properties authSwapProps(String route) {
+        Properties props = new Properties();
+        String user = benchmarkString("authswap.user", "bench_user");
+        String password = benchmarkString("authswap.password", "bench-secret");
+        switch (route) {
+            case "passthrough":
+                props.put("security.protocol", "SASL_PLAINTEXT");
+                props.put(SaslConfigs.SASL_MECHANISM, "PLAIN");
+                props.put(SaslConfigs.SASL_JAAS_CONFIG, String.format(
+                    "org.apache.kafka.common.security.plain.PlainLoginModule required username=\"%s\" password=\"%s\";",
+                    benchmarkString("authswap.broker.user", "newuser"),
+                    benchmarkString("authswap.broker.password", "newuser-secret")));
+                props.put(CommonClientConfigs.BOOTSTRAP_SERVERS_CONFIG,
+                          benchmarkString("authswap.passthrough.bootstrap.servers", "gateway:19092"));
+                break;
+            case "scram":
+                props.put("security.protocol", "SASL_PLAINTEXT");
+                props.put(SaslConfigs.SASL_MECHANISM, "SCRAM-SHA-256");
+                props.put(SaslConfigs.SASL_JAAS_CONFIG, scramJaasConfig(user, password));
+                props.put(CommonClientConfigs.BOOTSTRAP_SERVERS_CONFIG,
+                          benchmarkString("authswap.scram.bootstrap.servers", "gateway:19095"));
+                break;
+            case "reauth":
+                props.put("security.protocol", "SASL_PLAINTEXT");
+                props.put(SaslConfigs.SASL_MECHANISM, "PLAIN");
+                props.put(SaslConfigs.SASL_JAAS_CONFIG, String.format(
+                    "org.apache.kafka.common.security.plain.PlainLoginModule required username=\"%s\" password=\"%s\";",
+                    user, password));
+                props.put(CommonClientConfigs.BOOTSTRAP_SERVERS_CONFIG,
+                          benchmarkString("authswap.reauth.bootstrap.servers", "gateway:19101"));
+                break;
+            case "mtls":
+                props.put("security.protocol", "SSL");
+                props.put("ssl.endpoint.identification.algorithm", "");
+                props.put("ssl.truststore.location", "/etc/kafka/secrets/kafka.truststore.jks");
+                props.put("ssl.truststore.password", "confluent");
+                props.put("ssl.keystore.location",
+                          benchmarkString("authswap.keystore", "/etc/kafka/secrets/client.keystore.jks"));
+                props.put("ssl.keystore.password", "confluent");
+                props.put("ssl.key.password", "confluent");
+                props.put(CommonClientConfigs.BOOTSTRAP_SERVERS_CONFIG,
+                          benchmarkString("authswap.mtls.bootstrap.servers", "gateway:19098"));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown auth-swap route '" + route
+                    + "' (passthrough, scram, mtls, reauth)");
+        }
+        return props;
+    }
+
+    private static String scramJaasConfig(String user, String password) {
+        return String.format("org.apache.kafka.common.security.scram.ScramLoginModule required "
+                             + "username=\"%s\" password=\"%s\";", user, password);
+    }
+
+    /**
+     * Creates or resets the SCRAM route's client credential. The request goes through the gateway as its
+     * SCRAM admin, and with alterScramCredentials the gateway keeps the credential rather than the broker.
+     */
+    private void upsertScramCredential(Properties scramProps) throws Exception {
+        Properties adminProps = new Properties();
+        adminProps.putAll(scramProps);
+        adminProps.put(SaslConfigs.SASL_JAAS_CONFIG,
+                       scramJaasConfig(benchmarkString("authswap.scram.admin.user", "scram-admin"),
+                                       benchmarkString("authswap.scram.admin.password", "scram-admin-secret")));
+        adminProps.put(AdminClientConfig.REQUEST_TIMEOUT_MS_CONFIG, 15000);
+        try (AdminClient adminClient = AdminClient.create(adminProps)) {
+            adminClient.alterUserScramCredentials(Collections.singletonList(
+                new org.apache.kafka.clients.admin.UserScramCredentialUpsertion(
+                    benchmarkString("authswap.user", "bench_user"),
+                    new org.apache.kafka.clients.admin.ScramCredentialInfo(
+                        org.apache.kafka.clients.admin.ScramMechanism.SCRAM_SHA_256, 8192),
+                    benchmarkString("authswap.password", "bench-secret"))))
+                .all().get(15, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Opens the given number of clients one after another and times each from creation to its first
+     * describeCluster answer: TCP and TLS setup, authentication (including any credential swap at the
+     * gateway) and one metadata round trip. Client creation costs the same on every route, so routes are
+     * best compared with each other. Returns how many connections failed.
+     */
+    private int measureConnectionSetup(Properties clientProps, int connections, LatencyRecorder latency) {
+        Properties adminProps = new Properties();
+        adminProps.putAll(clientProps);
+        adminProps.put(AdminClientConfig.REQUEST_TIMEOUT_MS_CONFIG, 15000);
+        int failures = 0;
+        String firstFailure = null;
+        for (int i = 0; i < connections; i++) {
+            long startNanos = System.nanoTime();
+            try (AdminClient adminClient = AdminClient.create(adminProps)) {
+                adminClient.describeCluster().clusterId().get(15, TimeUnit.SECONDS);
+                latency.recordNanos(System.nanoTime() - startNanos);
+            } catch (Exception e) {
+                failures++;
+                if (firstFailure == null) {
+                    firstFailure = e.toString();
+                }
+            }
+        }
+        if (failures > 0) {
+            logger.warn("⚠️ {} of {} connections to {} failed, first: {}", failures, connections,
+                       clientProps.get(CommonClientConfigs.BOOTSTRAP_SERVERS_CONFIG), firstFailure);
+        }
+        return failures;
+    }
+
+    @Test
+    @Order(27)
+    @Tag("benchmark")
+    @DisplayName("SASL Re-authentication Latency Benchmark")
+    public void testReauthLatency() throws Exception {
+        logger.info("🔁 Running SASL Re-authentication Latency Benchmark...");
+
+        String[] routes = benchmarkString("reauth.routes", "passthrough,reauth").split(",");
+        int rate = benchmarkInt("reauth.rate", 500);
+        int recordSize = benchmarkInt("reauth.record.size", 512);
+        int partitions = benchmarkInt("reauth.partitions", 6);
+        int warmupSeconds = benchmarkInt("reauth.warmup.seconds", 5);
+        int durationSeconds = benchmarkInt("reauth.duration.seconds", 60);
+        long windowNanos = TimeUnit.MILLISECONDS.toNanos(benchmarkInt("reauth.window.ms", 200));
+        int sampleMillis = benchmarkInt("reauth.sample.ms", 10);
+
+        BenchmarkResults results = startBenchmark("reauth");
+        List<String> quiet = new ArrayList<>();
+        long failures = 0;
+        for (String route : routes) {
+            route = route.trim();
+            Properties clientProps = authSwapProps(route);
+            String topic = "reauth-" + route + "-" + System.currentTimeMillis();
+            createBenchmarkTopic(clientProps, topic, partitions);
+
+            ReauthTimeline timeline = new ReauthTimeline((int) Math.min(Integer.MAX_VALUE - 8,
+                                                                        (long) rate * durationSeconds * 11 / 10));
+            java.util.concurrent.atomic.LongAdder routeFailures = new java.util.concurrent.atomic.LongAdder();
+            long reauthentications = runReauthProducer(clientProps, topic, rate, recordSize, warmupSeconds,
+                                                       durationSeconds, sampleMillis, timeline, routeFailures);
+            failures += routeFailures.sum();
+
+            ReauthTimeline.Split split = timeline.split(windowNanos);
+            LatencyRecorder all = new LatencyRecorder();
+            all.add(split.near);
+            all.add(split.baseline);
+            double baselineP999 = split.baseline.percentileMillis(99.9);
+            LatencyRecorder spikes = new LatencyRecorder();
+            int spikingEvents = 0;
+            for (double eventMax : split.eventMaxMillis) {
+                double excess = Math.max(0.0, eventMax - baselineP999);
+                spikes.recordMicros((long) (excess * 1000));
+                if (excess > 0) {
+                    spikingEvents++;
+                }
+            }
+            int events = timeline.events();
+            double tailShare = timeline.tailShareNearEvents(windowNanos,
+                                                            (long) (all.percentileMillis(99.9) * 1_000_000));
+            double interval = timeline.meanIntervalSeconds();
+
+            logger.info("   {}: {} re-authentications seen at {} moments (every {} s), {} requests ({} dropped)",
+                       route, reauthentications, events, interval < 0 ? "n/a" : String.format("%.1f", interval),
+                       timeline.requests(), timeline.dropped());
+            logger.info("      near re-auth: {}", split.near.summary());
+            logger.info("      baseline:     {}", split.baseline.summary());
+            logger.info("      {} of {} re-authentications pushed a request past baseline p99.9 ({} ms), "
+                       + "mean excess {} ms, max {} ms; {} of requests over p99.9 were near a re-auth",
+                       spikingEvents, events, String.format("%.2f", baselineP999),
+                       String.format("%.2f", spikes.meanMillis()), String.format("%.2f", spikes.maxMillis()),
+                       tailShare < 0 ? "n/a" : String.format("%.0f%%", tailShare * 100));
+            results.metric(route + ".reauth_events.count", events)
+                .metric(route + ".reauth_interval_seconds", interval)
+                .metric(route + ".spiking_events.count", spikingEvents)
+                .metric(route + ".spiking_event_ratio", events == 0 ? -1 : spikingEvents / (double) events)
+                .metric(route + ".tail_near_reauth_ratio", tailShare)
+                .metric(route + ".added_p999_ms",
+                        split.near.count() == 0 ? -1 : split.near.percentileMillis(99.9) - baselineP999)
+                .metric(route + ".failures", routeFailures.sum())
+                .latency(route + ".produce", all)
+                .latency(route + ".near_reauth", split.near)
+                .latency(route + ".baseline", split.baseline)
+                .latency(route + ".spike_excess", spikes);
+            if (events == 0) {
+                quiet.add(route);
+            }
+        }
+        finishBenchmark(results);
+        assertEquals(0, failures, "Records failed during re-authentication");
+        assertTrue(quiet.isEmpty(), "No re-authentication observed on " + quiet + "; set connections.max.reauth.ms "
+                                    + "on the broker (passthrough) or connectionsMaxReAuthMs on the gateway route");
+    }
+
+    /**
+     * Sends records at a fixed rate from one producer, recording every measured request on the timeline
+     * (latency from its scheduled send time, as elsewhere). A sampler thread polls the producer's
+     * successful-reauthentication-total metric and marks each increase as a re-authentication event.
+     * Returns the number of re-authentications during the measured window.
+     */
+    private long runReauthProducer(Properties clientProps, String topic, int rate, int recordSize,
+                                   int warmupSeconds, int durationSeconds, int sampleMillis, ReauthTimeline timeline,
+                                   java.util.concurrent.atomic.LongAdder failures) throws Exception {
+        Properties producerProps = new Properties();
+        producerProps.putAll(clientProps);
+        producerProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        producerProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        producerProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        producerProps.put(ProducerConfig.LINGER_MS_CONFIG, 0);
+
+        PayloadPool values = benchmarkPayloads(recordSize);
+        long intervalNanos = 1_000_000_000L / Math.max(1, rate);
+        long startNanos = System.nanoTime();
+        long measureFromNanos = startNanos + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long endNanos = measureFromNanos + TimeUnit.SECONDS.toNanos(durationSeconds);
+        try (Producer<byte[], byte[]> producer = new KafkaProducer<>(producerProps)) {
+            java.util.concurrent.atomic.AtomicBoolean sampling = new java.util.concurrent.atomic.AtomicBoolean(true);
+            java.util.concurrent.atomic.LongAdder measured = new java.util.concurrent.atomic.LongAdder();
+            Thread sampler = new Thread(() -> {
+                long last = reauthentications(producer);
+                while (sampling.get()) {
+                    long current = reauthentications(producer);
+                    long now = System.nanoTime();
+                    if (current > last && now >= measureFromNanos) {
+                        timeline.event(now);
+                        measured.add(current - last);
+                    }
+                    last = current;
+                    try {
+                        Thread.sleep(sampleMillis);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }, "reauth-sampler");
+            sampler.start();
+
+            AsyncSendDriver<byte[], byte[]> driver = new AsyncSendDriver<>(producer, SEND_WINDOW);
+            long allocatedBefore = HarnessAllocationMeter.currentThreadAllocatedBytes();
+            long sent = 0;
+            while (true) {
+                long scheduled = startNanos + sent * intervalNanos;
+                if (scheduled >= endNanos) {
+                    break;
+                }
+                long wait = scheduled - System.nanoTime();
+                if (wait > 0) {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                }
+                boolean measure = scheduled >= measureFromNanos;
+                driver.send(new ProducerRecord<>(topic, values.get(sent)), (metadata, exception) -> {
+                    if (exception != null) {
+                        failures.increment();
+                    } else if (measure) {
+                        timeline.record(scheduled, System.nanoTime() - scheduled);
+                    }
+                });
+                sent++;
+            }
+            harnessAllocation.addGenerator(allocatedBefore, HarnessAllocationMeter.currentThreadAllocatedBytes(), sent);
+            if (!driver.awaitCompletion(60, TimeUnit.SECONDS)) {
+                logger.warn("⚠️ Re-auth producer for {} still had records in flight after 60s", topic);
+            }
+            sampling.set(false);
+            sampler.join();
+            if (driver.failed() > 0) {
+                logger.warn("⚠️ {} sends to {} failed, first: {}", driver.failed(), topic,
+                           driver.failures().isEmpty() ? "n/a" : driver.failures().get(0).toString());
+            }
+            return measured.sum();
+        }
+    }
+
+    /**
+     * The client's successful-reauthentication-total across its connections (KIP-368), or 0 if the
+     * client does not report it.
+     */
+    private static long reauthentications(Producer<?, ?> producer) {
+        double total = 0;
+        for (Map.Entry<org.apache.kafka.common.MetricName, ? extends org.apache.kafka.common.Metric> metric
+                : producer.metrics().entrySet()) {
+            if ("successful-reauthentication-total".equals(metric.getKey().name())
+                && "producer-metrics".equals(metric.getKey().group())) {
+                Object value = metric.getValue().metricValue();
+                if (value instanceof Number) {
+                    total += ((Number) value).doubleValue();
+                }
+            }
+        }
+        return (long) total;
+    }
+
+    @Test
+    @Order(28)
+    @Tag("benchmark")
+    @DisplayName("Broker Identification Strategy Benchmark")
+    public void testBrokerIdentification() throws Exception {
+        logger.info("🧭 Running Broker Identification Strategy Benchmark...");
+
+        String[] strategies = benchmarkString("identification.strategies", "port,sni").split(",");
+        int connections = benchmarkInt("identification.connections", 50);
+        int partitionsPerBroker = benchmarkInt("identification.partitions.per.broker", 6);
+        int rate = benchmarkInt("identification.rate", 0);
+        int recordSize = benchmarkInt("identification.record.size", 1024);
+        int warmupSeconds = benchmarkInt("identification.warmup.seconds", 5);
+        int durationSeconds = benchmarkInt("identification.duration.seconds", 20);
+
+        List<Integer> brokerIds = new ArrayList<>();
+        Properties adminProps = identificationProps("port");
+        adminProps.put(AdminClientConfig.REQUEST_TIMEOUT_MS_CONFIG, 15000);
+        try (AdminClient adminClient = AdminClient.create(adminProps)) {
+            for (Node node : adminClient.describeCluster().nodes().get(15, TimeUnit.SECONDS)) {
+                brokerIds.add(node.id());
+            }
+        }
+        int brokers = brokerIds.size();
+        int producers = benchmarkInt("identification.producers", brokers * 2);
+        logger.info("   {} brokers, {} partitions, {} producers, TLS on every route", brokers,
+                   brokers * partitionsPerBroker, producers);
+
+        BenchmarkResults results = startBenchmark("broker-identification").parameter("brokers", brokers);
+        GatewayMetricsScraper scraper = gatewayMetricsScraper();
+        boolean healthy = true;
+        for (String strategy : strategies) {
+            strategy = strategy.trim();
+            Properties clientProps = identificationProps(strategy);
+
+            LatencyRecorder bootstrap = new LatencyRecorder();
+            LatencyRecorder allBrokers = new LatencyRecorder();
+            double cpuBefore = scraper.processCpuSeconds();
+            int connectFailures = measureBrokerConnections(clientProps, connections, brokerIds, bootstrap, allBrokers);
+            double cpuAfter = scraper.processCpuSeconds();
+            // Each round opens the bootstrap connection plus one per broker
+            long opened = (long) (connections - connectFailures) * (brokers + 1);
+            double cpuMillisPerConnection = cpuBefore >= 0 && cpuAfter >= cpuBefore && opened > 0
+                ? (cpuAfter - cpuBefore) * 1000 / opened : -1;
+
+            com.fasterxml.jackson.databind.node.ObjectNode spec = Workload.newSpec()
+                .put("name", "identification-" + strategy)
+                .put("warmup_seconds", warmupSeconds).put("duration_seconds", durationSeconds);
+            spec.putArray("topics").addObject().put("name", "identification-" + strategy)
+                .put("partitions", brokers * partitionsPerBroker).put("producers", producers).put("rate", rate)
+                .putObject("record_size").put("size", recordSize);
+            Workload workload = Workload.fromJson(spec);
+            long startNanos = System.nanoTime();
+            cpuBefore = scraper.processCpuSeconds();
+            WorkloadRun run = executeWorkload(workload, clientProps);
+            cpuAfter = scraper.processCpuSeconds();
+            double cores = cpuBefore >= 0 && cpuAfter >= cpuBefore
+                ? (cpuAfter - cpuBefore) / ((System.nanoTime() - startNanos) / 1_000_000_000.0) : -1;
+            WorkloadTopicStats stats = run.stats.get(0);
+
+            logger.info("   {}: bootstrap connection p50 {} ms, p99 {} ms; all {} brokers p50 {} ms, p99 {} ms; "
+                       + "gateway CPU {} ms/connection, {} failed", strategy,
+                       String.format("%.2f", bootstrap.percentileMillis(50)),
+                       String.format("%.2f", bootstrap.percentileMillis(99)), brokers,
+                       String.format("%.2f", allBrokers.percentileMillis(50)),
+                       String.format("%.2f", allBrokers.percentileMillis(99)),
+                       cpuMillisPerConnection < 0 ? "n/a" : String.format("%.2f", cpuMillisPerConnection),
+                       connectFailures);
+            reportWorkloadTopic(results, strategy, workload.topics.get(0), stats, run.measuredSeconds,
+                                partitionLeaders(clientProps, run.topics.get(0)));
+            double produceMBps = stats.producedBytes.sum() / run.measuredSeconds / (1024 * 1024);
+            logger.info("🧭 Identification result: strategy={} brokers={} connect_all_p99={}ms produce={}MB/s "
+                       + "p99={}ms cores={}", strategy, brokers, String.format("%.2f", allBrokers.percentileMillis(99)),
+                       String.format("%.1f", produceMBps),
+                       String.format("%.2f", stats.produced.combined().percentileMillis(99)),
+                       cores < 0 ? "n/a" : String.format("%.3f", cores));
+            results.metric(strategy + ".connect_failures", connectFailures)
+                .metric(strategy + ".gateway_cpu_ms_per_connection", cpuMillisPerConnection)
+                .metric(strategy + ".gateway_cpu_cores", cores)
+                .latency(strategy + ".connect_bootstrap", bootstrap)
+                .latency(strategy + ".connect_all_brokers", allBrokers);
+            healthy &= connectFailures == 0 && run.healthy();
+        }
+        finishBenchmark(results);
+        assertTrue(healthy, "Connections or records failed; check the TLS routes and, for SNI, that the broker "
+                            + "host names resolve to the gateway");
+    }
+
+    /**
+     * TLS client properties for the port-based route (benchmark.identification.port.bootstrap.servers) or
+     * the SNI route, whose host-name pattern the gateway matches against the TLS server name.
+     */
+    private Properties identificationProps(String strategy) {
+        switch (strategy) {
+            case "port":
+                return routeProps(benchmarkString("identification.port.bootstrap.servers", bootstrapServers), "ssl");
+            case "sni":
+                return routeProps(benchmarkString("identification.sni.bootstrap.servers", "gateway.local:19300"),
+                                  "ssl");
+            default:
+                throw new IllegalArgumentException("Unknown broker identification strategy '" + strategy
+                    + "' (port, sni)");
+        }
+    }
+
+    /**
+     * Like {@link #measureConnectionSetup}, but each new client also fetches every broker's configs,
+     * which it can only get from that broker, so the second recorder covers one connection per broker
+     * on top of the bootstrap connection. Returns how many rounds failed.
+     */
+    private int measureBrokerConnections(Properties clientProps, int connections, List<Integer> brokerIds,
+                                         LatencyRecorder bootstrap, LatencyRecorder allBrokers) {
+        Properties adminProps = new Properties();
+        adminProps.putAll(clientProps);
+        adminProps.put(AdminClientConfig.REQUEST_TIMEOUT_MS_CONFIG, 15000);
+        int failures = 0;
+        String firstFailure = null;
+        for (int i = 0; i < connections; i++) {
+            long startNanos = System.nanoTime();
+            try (AdminClient adminClient = AdminClient.create(adminProps)) {
+                adminClient.describeCluster().clusterId().get(15, TimeUnit.SECONDS);
+                bootstrap.recordNanos(System.nanoTime() - startNanos);
+                for (int brokerId : brokerIds) {
+                    ConfigResource broker = new ConfigResource(ConfigResource.Type.BROKER, String.valueOf(brokerId));
+                    adminClient.describeConfigs(Collections.singletonList(broker)).all().get(15, TimeUnit.SECONDS);
+                }
+                allBrokers.recordNanos(System.nanoTime() - startNanos);
+            } catch (Exception e) {
+                failures++;
+                if (firstFailure == null) {
+                    firstFailure = e.toString();
+                }
+            }
+        }
+        if (failures > 0) {
+            logger.warn("⚠️ {} of {} connection rounds to {} failed, first: {}", failures, connections,
+                       clientProps.get(CommonClientConfigs.BOOTSTRAP_SERVERS_CONFIG), firstFailure);
+        }
+        return failures;
+    }
+
+    @Test
+    @Order(29)
+    @Tag("benchmark")
+    @DisplayName("Gateway Startup and Warm-up Benchmark")
+    public void testGatewayStartup() throws Exception {
+        logger.info("🚀 Running Gateway Startup and Warm-up Benchmark...");
+
+        int requests = benchmarkInt("startup.requests", 10000);
+        int windowSize = benchmarkInt("startup.window", 500);
+        double tolerance = Double.parseDouble(benchmarkString("startup.stable.tolerance", "1.2"));
+        int recordSize = benchmarkInt("startup.record.size", 1024);
+        int timeoutSeconds = benchmarkInt("startup.timeout.seconds", 180);
+        String startCommand = benchmarkString("startup.command", "");
+        java.io.File marker = new java.io.File(benchmarkString("startup.marker", "/tmp/gateway-started-at"));
+        String livezUrl = System.getProperty("gateway.livez.url", "http://gateway:9190/livez");
+        marker.delete();
+
+        String topic = "startup-" + System.currentTimeMillis();
+        createBenchmarkTopic(baseProps, topic, 1);
+
+        // Either run the (re)start command here, or wait for the script to start the gateway and write
+        // the container's start time into the marker
+        long startedAtMs;
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(timeoutSeconds);
+        if (!startCommand.isEmpty()) {
+            logger.info("🔁 Starting gateway: {}", startCommand);
+            Process process = new ProcessBuilder("sh", "-c", startCommand).inheritIO().start();
+            if (!process.waitFor(timeoutSeconds, TimeUnit.SECONDS) || process.exitValue() != 0) {
+                process.destroy();
+                throw new IllegalStateException("Start command '" + startCommand + "' did not succeed");
+            }
+            startedAtMs = System.currentTimeMillis();
+        } else {
+            logger.info("   Waiting for the gateway to start (marker: {})", marker);
+            while (!marker.isFile() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertTrue(marker.isFile(), "No gateway start was recorded in " + marker);
+            Thread.sleep(20);
+            String content = new String(java.nio.file.Files.readAllBytes(marker.toPath()), "UTF-8").trim();
+            startedAtMs = content.isEmpty() ? System.currentTimeMillis() : Long.parseLong(content);
+        }
+        logger.info("   Gateway started at {}; {} requests, windows of {}, stable within {}x of steady p99",
+                   startedAtMs, requests, windowSize, tolerance);
+
+        java.util.concurrent.atomic.AtomicLong livezAtMs = new java.util.concurrent.atomic.AtomicLong(-1);
+        final long probeDeadline = deadline;
+        Thread livezProbe = new Thread(() -> {
+            while (System.currentTimeMillis() < probeDeadline) {
+                if (httpOk(livezUrl)) {
+                    livezAtMs.set(System.currentTimeMillis());
+                    return;
+                }
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }, "livez-probe");
+        livezProbe.start();
+
+        Properties producerProps = new Properties();
+        producerProps.putAll(baseProps);
+        producerProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        producerProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        producerProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        producerProps.put(ProducerConfig.LINGER_MS_CONFIG, 0);
+        producerProps.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, 1000);
+        producerProps.put(ProducerConfig.RECONNECT_BACKOFF_MAX_MS_CONFIG, 100);
+
+        long metadataAtMs = -1;
+        WarmupCurve curve = new WarmupCurve(requests);
+        int failures = 0;
+        BenchmarkResults results;
+        try (Producer<byte[], byte[]> producer = new KafkaProducer<>(producerProps)) {
+            // A fresh producer has no cached metadata, so partitionsFor waits for a real Metadata response
+            while (metadataAtMs < 0 && System.currentTimeMillis() < deadline) {
+                try {
+                    producer.partitionsFor(topic);
+                    metadataAtMs = System.currentTimeMillis();
+                } catch (Exception e) {
+                    logger.debug("Metadata not available yet: {}", e.getMessage());
+                }
+            }
+            livezProbe.join(Math.max(1, deadline - System.currentTimeMillis()));
+            livezProbe.interrupt();
+            // Gateway counters restarted with the process, so the resource snapshot is taken only now
+            results = startBenchmark("startup");
+
+            // One request in flight at a time, so each send is one Produce request and its own sample
+            PayloadPool payloads = benchmarkPayloads(recordSize);
+            for (int i = 0; i < requests && metadataAtMs >= 0 && System.currentTimeMillis() < deadline; i++) {
+                long sendNanos = System.nanoTime();
+                try {
+                    producer.send(new ProducerRecord<>(topic, payloads.get(i))).get(30, TimeUnit.SECONDS);
+                    curve.record(System.currentTimeMillis(), System.nanoTime() - sendNanos);
+                } catch (Exception e) {
+                    failures++;
+                    logger.debug("Warm-up request {} failed: {}", i, e.getMessage());
+                }
+            }
+        }
+
+        int stableFrom = curve.stableFrom(windowSize, tolerance);
+        long timeToLivez = livezAtMs.get() < 0 ? -1 : livezAtMs.get() - startedAtMs;
+        long timeToMetadata = metadataAtMs < 0 ? -1 : metadataAtMs - startedAtMs;
+        long timeToStable = stableFrom < 0 ? -1 : curve.completedAtMillis(stableFrom) - startedAtMs;
+        LatencyRecorder first = curve.range(0, windowSize);
+        LatencyRecorder steady = curve.steady(windowSize);
+
+        logger.info("✅ Gateway startup results:");
+        logger.info("   Time to /livez:            {}", formatRecoveryMillis(timeToLivez));
+        logger.info("   Time to first Metadata:    {}", formatRecoveryMillis(timeToMetadata));
+        logger.info("   Time to stable p99:        {} (from request {})", formatRecoveryMillis(timeToStable),
+                   stableFrom);
+        logger.info("   Warm-up curve ({} requests, {} failed):", curve.requests(), failures);
+        for (int from = 0; from < curve.requests(); from += windowSize) {
+            LatencyRecorder window = curve.range(from, from + windowSize);
+            logger.info("      requests {}-{}: p50 {} ms, p99 {} ms, max {} ms", from,
+                       Math.min(from + windowSize, curve.requests()) - 1,
+                       String.format("%.2f", window.percentileMillis(50)),
+                       String.format("%.2f", window.percentileMillis(99)),
+                       String.format("%.2f", window.maxMillis()));
+        }
+        logger.info("🚀 Startup result: livez={}ms metadata={}ms stable_p99={}ms first_p99={}ms steady_p99={}ms",
+                   timeToLivez, timeToMetadata, timeToStable, String.format("%.2f", first.percentileMillis(99)),
+                   String.format("%.2f", steady.percentileMillis(99)));
+
+        java.io.File resultsDir = new java.io.File(System.getProperty("benchmark.results.dir",
+                                                                      "target/benchmark-results"));
+        try {
+            java.io.File csv = new java.io.File(resultsDir, "startup-warmup-" + startedAtMs + ".csv");
+            if (resultsDir.isDirectory() || resultsDir.mkdirs()) {
+                curve.writeCsv(csv, startedAtMs);
+                logger.info("   📈 Per-request warm-up latency written to {}", csv);
+            }
+        } catch (java.io.IOException e) {
+            logger.warn("⚠️ Could not write the warm-up curve: {}", e.getMessage());
+        }
+
+        // Only the headline timings are gated; the per-window curve lives in the CSV, since p50/p99
+        // over a few hundred cold-JVM requests per window is too noisy to compare run to run
+        results.metric("time_to_livez_ms", timeToLivez)
+            .metric("time_to_first_metadata_ms", timeToMetadata)
+            .metric("time_to_stable_p99_ms", timeToStable)
+            .metric("warmup_p99_ratio", steady.percentileMillis(99) > 0
+                ? first.percentileMillis(99) / steady.percentileMillis(99) : -1)
+            .detail("stable_after_requests", stableFrom)
+            .detail("failed_requests", failures)
+            .latency("warmup_first_window", first)
+            .latency("warmup_steady", steady);
+        finishBenchmark(results);
+
+        assertTrue(timeToLivez >= 0, "/livez did not answer within " + timeoutSeconds + "s of the gateway start");
+        assertTrue(timeToMetadata >= 0, "No Metadata response within " + timeoutSeconds + "s of the gateway start");
+        assertEquals(0, failures, "Warm-up requests should not fail once Metadata is available");
+    }
+
+    private static boolean httpOk(String url) {
+        try {
+            java.net.HttpURLConnection connection = (java.net.HttpURLConnection) new java.net.URL(url).openConnection();
+            connection.setConnectTimeout(1000);
+            connection.setReadTimeout(1000);
+            try {
+                return connection.getResponseCode() == 200;
+            } finally {
+                connection.disconnect();
+            }
+        } catch (java.io.IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Per-topic counters for a workload run. Counts cover the measured window after the warm-up, except
+     * the "all" counters, which decide when consumers have caught up with everything produced.
+     */
+    private static final class WorkloadTopicStats {
+        final LatencyRecorder endToEndLatency = new LatencyRecorder();
+        final PartitionLatency produced;
+        final java.util.concurrent.atomic.LongAdder producedBytes = new java.util.concurrent.atomic.LongAdder();
+        final java.util.concurrent.atomic.LongAdder consumedRecords = new java.util.concurrent.atomic.LongAdder();
+        final java.util.concurrent.atomic.LongAdder consumedBytes = new java.util.concurrent.atomic.LongAdder();
+        final java.util.concurrent.atomic.LongAdder failures = new java.util.concurrent.atomic.LongAdder();
+        final java.util.concurrent.atomic.LongAdder ackedAll = new java.util.concurrent.atomic.LongAdder();
+        final java.util.concurrent.atomic.LongAdder consumedAll = new java.util.concurrent.atomic.LongAdder();
+        
+        WorkloadTopicStats(int partitions) {
+            produced = new PartitionLatency(partitions);
+        }
+    }
+    
+    /**
+     * Outcome of executing a workload: per-topic stats in workload order and the measured window.
+     */
+    private static final class WorkloadRun {
+        final List<String> topics = new ArrayList<>();
+        final List<WorkloadTopicStats> stats = new ArrayList<>();
+        double measuredSeconds;
+        boolean drained;
+        
+        boolean healthy() {
+            boolean healthy = drained;
+            for (WorkloadTopicStats topicStats : stats) {
+                healthy &= topicStats.failures.sum() == 0;
+            }
+            return healthy;
+        }
+    }
+    
+    /**
+     * Runs one workload and writes its result as scenario "workload-<name>". Returns false if sends
+     * failed or consumers did not read back every acknowledged record.
+     */
+    private boolean runWorkload(Workload workload) throws Exception {
+        logger.info("📜 Workload {}", workload);
+        
+        Properties clientProps = new Properties();
+        clientProps.putAll(baseProps);
+        if (workload.security != null) {
+            clientProps = routeProps(workload.bootstrapServers != null ? workload.bootstrapServers : bootstrapServers,
+                                     workload.security);
+        } else if (workload.bootstrapServers != null) {
+            clientProps.put(CommonClientConfigs.BOOTSTRAP_SERVERS_CONFIG, workload.bootstrapServers);
+        }
+        
+        BenchmarkResults results = startBenchmark("workload-" + workload.name)
+            .parameter("workload.sha256", workload.sha256)
+            .parameter("workload.seed", workload.seed)
+            .context("workload_file", workload.source);
+        GatewayMetricsScraper scraper = gatewayMetricsScraper();
+        long startNanos = System.nanoTime();
+        double cpuBefore = scraper.processCpuSeconds();
+        WorkloadRun run = executeWorkload(workload, clientProps);
+        double cpuAfter = scraper.processCpuSeconds();
+        double elapsedSeconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+        
+        logger.info("✅ Workload {} results:", workload.name);
+        double totalProducedRecords = 0;
+        double totalProducedBytes = 0;
+        long totalRecords = 0;
+        LatencyRecorder produceLatency = new LatencyRecorder();
+        for (int t = 0; t < run.stats.size(); t++) {
+            Workload.TopicLoad load = workload.topics.get(t);
+            WorkloadTopicStats topicStats = run.stats.get(t);
+            totalProducedRecords += topicStats.produced.totalRecords();
+            totalProducedBytes += topicStats.producedBytes.sum();
+            totalRecords += topicStats.ackedAll.sum() + topicStats.consumedAll.sum();
+            produceLatency.add(topicStats.produced.combined());
+            reportWorkloadTopic(results, load.name, load, topicStats, run.measuredSeconds,
+                                partitionLeaders(clientProps, run.topics.get(t)));
+        }
+        // Gateway CPU covers the warm-up and drain as well, so it is averaged over the whole run
+        double cores = cpuBefore >= 0 && cpuAfter >= cpuBefore ? (cpuAfter - cpuBefore) / elapsedSeconds : -1;
+        double cpuMicrosPerRecord = cores >= 0 && totalRecords > 0
+            ? (cpuAfter - cpuBefore) * 1_000_000 / totalRecords : -1;
+        double produceMBps = totalProducedBytes / run.measuredSeconds / (1024 * 1024);
+        logger.info("📜 Workload result: name={} produce={}MB/s p99={}ms cores={}", workload.name,
+                   String.format("%.2f", produceMBps), String.format("%.2f", produceLatency.percentileMillis(99)),
+                   cores < 0 ? "n/a" : String.format("%.3f", cores));
+        results.metric("produce_records_per_sec", totalProducedRecords / run.measuredSeconds)
+            .metric("produce_mbps", produceMBps)
+            .metric("gateway_cpu_cores", cores)
+            .metric("gateway_cpu_us_per_record", cpuMicrosPerRecord)
+            .latency("produce", produceLatency);
+        if (!run.drained) {
+            logger.warn("   ⚠️ Consumers did not read back every acknowledged record within 60s");
+        }
+        finishBenchmark(results);
+        return run.healthy();
+    }
+    
+    /**
+     * Creates the workload's topics with a run-specific suffix, runs its producers and consumers for the
+     * warm-up plus the measured window, then lets consumers catch up with everything acknowledged.
+     */
+    private WorkloadRun executeWorkload(Workload workload, Properties clientProps) throws Exception {
+        String runId = String.valueOf(System.currentTimeMillis());
+        WorkloadRun run = new WorkloadRun();
+        for (Workload.TopicLoad load : workload.topics) {
+            String topic = load.name + "-" + runId;
+            createBenchmarkTopic(clientProps, topic, load.partitions);
+            run.topics.add(topic);
+        }
+        
+        long startNanos = System.nanoTime();
+        long measureFromNanos = startNanos + TimeUnit.SECONDS.toNanos(workload.warmupSeconds);
+        long endNanos = measureFromNanos + TimeUnit.SECONDS.toNanos(workload.durationSeconds);
+        long measureFromMillis = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(workload.warmupSeconds);
+        java.util.concurrent.atomic.AtomicBoolean consuming = new java.util.concurrent.atomic.AtomicBoolean(true);
+        
+        List<Thread> producerThreads = new ArrayList<>();
+        List<Thread> consumerThreads = new ArrayList<>();
+        for (int t = 0; t < workload.topics.size(); t++) {
+            Workload.TopicLoad load = workload.topics.get(t);
+            String topic = run.topics.get(t);
+            WorkloadTopicStats topicStats = new WorkloadTopicStats(load.partitions);
+            run.stats.add(topicStats);
+            
+            // Every random choice is derived from the workload seed, the topic and the producer
+            Random topicRandom = new Random(workload.seed * 31 + t);
+            PayloadPool values = new PayloadPool(sampleRecordSizes(load.recordSize, topicRandom), load.entropy,
+                                                 topicRandom.nextLong());
+            for (int c = 0; c < load.consumers; c++) {
+                String group = "workload-" + workload.name + "-" + load.name + "-" + runId;
+                Thread consumer = new Thread(() -> runWorkloadConsumer(clientProps, topic, group, "earliest",
+                                                                       measureFromMillis, consuming, topicStats),
+                                             "workload-" + load.name + "-consumer-" + c);
+                consumer.start();
+                consumerThreads.add(consumer);
+            }
+            for (int p = 0; p < load.producers; p++) {
+                long producerSeed = topicRandom.nextLong();
+                double producerRate = load.rate / (double) load.producers;
+                Thread producer = new Thread(() -> runWorkloadProducer(clientProps, load, topic, values, producerSeed,
+                                                                       producerRate, startNanos, measureFromNanos,
+                                                                       endNanos, topicStats),
+                                             "workload-" + load.name + "-producer-" + p);
+                producer.start();
+                producerThreads.add(producer);
+            }
+        }
+        
+        for (Thread producer : producerThreads) {
+            producer.join();
+        }
+        run.measuredSeconds = Math.max(1, System.nanoTime() - measureFromNanos) / 1_000_000_000.0;
+        // Let consumers catch up with everything that was acknowledged
+        long drainDeadline = System.currentTimeMillis() + 60000;
+        while (!run.drained && System.currentTimeMillis() < drainDeadline) {
+            run.drained = true;
+            for (int t = 0; t < run.stats.size(); t++) {
+                WorkloadTopicStats topicStats = run.stats.get(t);
+                if (workload.topics.get(t).consumers > 0 && topicStats.consumedAll.sum() < topicStats.ackedAll.sum()) {
+                    run.drained = false;
+                }
+            }
+            if (!run.drained) {
+                Thread.sleep(200);
+            }
+        }
+        consuming.set(false);
+        for (Thread consumer : consumerThreads) {
+            consumer.join(30000);
+        }
+        return run;
+    }
+    
+    /**
+     * Logs and records one topic's throughput and latency, including how the load split across
+     * partitions and partition leaders. Metric names are prefixed with the given label.
+     */
+    private void reportWorkloadTopic(BenchmarkResults results, String label, Workload.TopicLoad load,
+                                     WorkloadTopicStats stats, double seconds, Map<Integer, String> leaders) {
+        PartitionLatency partitions = stats.produced;
+        LatencyRecorder produceLatency = partitions.combined();
+        double produceRecordsPerSec = partitions.totalRecords() / seconds;
+        double produceMBps = stats.producedBytes.sum() / seconds / (1024 * 1024);
+        double consumeMBps = stats.consumedBytes.sum() / seconds / (1024 * 1024);
+        logger.info("   {}: produced {} records/s ({} MB/s, target {}), consumed {} MB/s, failures {}",
+                   label, String.format("%.1f", produceRecordsPerSec), String.format("%.2f", produceMBps),
+                   load.rate > 0 ? load.rate + "/s" : "unthrottled", String.format("%.2f", consumeMBps),
+                   stats.failures.sum());
+        logger.info("      produce:    {}", produceLatency.summary());
+        if (load.consumers > 0) {
+            logger.info("      end-to-end: {}", stats.endToEndLatency.summary());
+        }
+        results.metric(label + ".produce_records_per_sec", produceRecordsPerSec)
+            .metric(label + ".produce_mbps", produceMBps)
+            .metric(label + ".consume_mbps", consumeMBps)
+            .metric(label + ".failures", stats.failures.sum())
+            .latency(label + ".produce", produceLatency);
+        if (load.consumers > 0) {
+            results.latency(label + ".end_to_end", stats.endToEndLatency);
+        }
+        
+        // Per partition, then per leader: the gateway endpoint that fronts each partition leader
+        Map<String, LatencyRecorder> leaderLatency = new java.util.TreeMap<>();
+        Map<String, Long> leaderRecords = new java.util.TreeMap<>();
+        logger.info("      partition skew {} (busiest partition vs an even share), keys {}",
+                   String.format("%.2f", partitions.skew()), load.keys);
+        for (int p = 0; p < partitions.partitions(); p++) {
+            String leader = leaders.getOrDefault(p, "unknown");
+            LatencyRecorder recorder = partitions.latency(p);
+            logger.info("      p{} {} records/s, p99 {} ms, leader {}", p,
+                       String.format("%8.1f", partitions.records(p) / seconds),
+                       String.format("%.2f", recorder.percentileMillis(99)), leader);
+            leaderLatency.computeIfAbsent(leader, l -> new LatencyRecorder()).add(recorder);
+            leaderRecords.merge(leader, partitions.records(p), Long::sum);
+            // A p99 over one partition's few hundred samples is too noisy to gate; partition_skew is
+            results.detail(label + ".partition." + p + ".p99_ms", recorder.percentileMillis(99));
+        }
+        long busiestLeader = 0;
+        for (Map.Entry<String, LatencyRecorder> leader : leaderLatency.entrySet()) {
+            long records = leaderRecords.get(leader.getKey());
+            busiestLeader = Math.max(busiestLeader, records);
+            logger.info("      leader {}: {} records/s, p99 {} ms", leader.getKey(),
+                       String.format("%.1f", records / seconds),
+                       String.format("%.2f", leader.getValue().percentileMillis(99)));
+        }
+        results.metric(label + ".partition_skew", partitions.skew())
+            .metric(label + ".busiest_leader_share",
+                    partitions.totalRecords() == 0 ? 0.0 : busiestLeader / (double) partitions.totalRecords());
+    }
+    
+    /**
+     * Leader of each partition as "broker <id> @ host:port", where host:port is the gateway endpoint
+     * clients are given for that broker. Empty if the topic cannot be described.
+     */
+    private Map<Integer, String> partitionLeaders(Properties clientProps, String topic) {
+        Map<Integer, String> leaders = new HashMap<>();
+        Properties adminProps = new Properties();
+        adminProps.putAll(clientProps);
+        adminProps.put(AdminClientConfig.REQUEST_TIMEOUT_MS_CONFIG, 15000);
+        try (AdminClient adminClient = AdminClient.create(adminProps)) {
+            TopicDescription description = getTopicDescription(
+                adminClient.describeTopics(Collections.singletonList(topic)), topic);
+            for (org.apache.kafka.common.TopicPartitionInfo partition : description.partitions()) {
+                Node leader = partition.leader();
+                leaders.put(partition.partition(), leader == null ? "none"
+                    : "broker " + leader.id() + " @ " + leader.host() + ":" + leader.port());
+            }
+        } catch (Exception e) {
+            logger.warn("⚠️ Could not describe partition leaders of {}: {}", topic, e.getMessage());
+        }
+        return leaders;
+    }
+    
+    /**
+     * Samples the value sizes for a topic's payload pool: up to 256 entries, capped at 64 MB in total.
+     */
+    private static int[] sampleRecordSizes(Workload.SizeDistribution distribution, Random random) {
+        int[] sizes = new int[256];
+        long total = 0;
+        int count = 0;
+        while (count < sizes.length && (count == 0 || total < 64L * 1024 * 1024)) {
+            sizes[count] = distribution.sample(random);
+            total += sizes[count++];
+        }
+        return Arrays.copyOf(sizes, count);
+    }
+    
+    /**
+     * One workload producer. With a target rate, records are sent on a fixed schedule and latency is
+     * measured from the scheduled time, so a stalled pipeline shows up as latency; unthrottled producers
+     * measure from the send.
+     */
+    private void runWorkloadProducer(Properties clientProps, Workload.TopicLoad load, String topic,
+                                     PayloadPool values, long seed, double ratePerSecond,
+                                     long startNanos, long measureFromNanos, long endNanos, WorkloadTopicStats stats) {
+        Properties producerProps = new Properties();
+        producerProps.putAll(clientProps);
+        producerProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        producerProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        producerProps.put(ProducerConfig.ACKS_CONFIG, load.acks);
+        producerProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, load.compression);
+        producerProps.put(ProducerConfig.LINGER_MS_CONFIG, load.lingerMs);
+        producerProps.put(ProducerConfig.BATCH_SIZE_CONFIG, load.batchSize);
+        
+        Random random = new Random(seed);
+        long intervalNanos = ratePerSecond > 0 ? (long) (1_000_000_000L / ratePerSecond) : 0;
+        long records = 0;
+        try (Producer<byte[], byte[]> producer = new KafkaProducer<>(producerProps)) {
+            AsyncSendDriver<byte[], byte[]> driver = new AsyncSendDriver<>(producer, SEND_WINDOW);
+            long offset = random.nextInt(Math.max(1, values.entries()));
+            long allocatedBefore = HarnessAllocationMeter.currentThreadAllocatedBytes();
+            while (true) {
+                long scheduled = intervalNanos > 0 ? startNanos + records * intervalNanos : System.nanoTime();
+                if (scheduled >= endNanos) {
+                    break;
+                }
+                long wait = scheduled - System.nanoTime();
+                if (wait > 0) {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                }
+                byte[] key = load.keys.next(random, records);
+                byte[] value = values.get(offset + records);
+                boolean measured = scheduled >= measureFromNanos;
+                driver.send(new ProducerRecord<>(topic, key, value), (metadata, exception) -> {
+                    if (exception != null) {
+                        stats.failures.increment();
+                        return;
+                    }
+                    stats.ackedAll.increment();
+                    if (measured) {
+                        stats.produced.record(metadata.partition(), System.nanoTime() - scheduled, value.length);
+                        stats.producedBytes.add(value.length);
+                    }
+                });
+                records++;
+            }
+            harnessAllocation.addGenerator(allocatedBefore, HarnessAllocationMeter.currentThreadAllocatedBytes(),
+                                           records);
+            if (!driver.awaitCompletion(60, TimeUnit.SECONDS)) {
+                logger.warn("⚠️ Workload producer for {} still had records in flight after 60s", load.name);
+            }
+        } catch (Exception e) {
+            stats.failures.increment();
+            logger.warn("⚠️ Workload producer for {} stopped: {}", load.name, e.getMessage());
+        }
+    }
+    
+    private void runWorkloadConsumer(Properties clientProps, String topic, String group, String offsetReset,
+                                     long measureFromMillis, java.util.concurrent.atomic.AtomicBoolean running,
+                                     WorkloadTopicStats stats) {
+        Properties consumerProps = new Properties();
+        consumerProps.putAll(clientProps);
+        consumerProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        consumerProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        consumerProps.put(ConsumerConfig.GROUP_ID_CONFIG, group);
+        consumerProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, offsetReset);
+        
+        try (Consumer<byte[], byte[]> consumer = new KafkaConsumer<>(consumerProps)) {
+            consumer.subscribe(Collections.singletonList(topic));
+            while (running.get()) {
+                ConsumerRecords<byte[], byte[]> polled = consumer.poll(Duration.ofMillis(500));
+                long now = System.currentTimeMillis();
+                for (ConsumerRecord<byte[], byte[]> record : polled) {
+                    stats.consumedAll.increment();
+                    if (record.timestamp() >= measureFromMillis) {
+                        stats.endToEndLatency.recordMicros(TimeUnit.MILLISECONDS.toMicros(now - record.timestamp()));
+                        stats.consumedRecords.increment();
+                        stats.consumedBytes.add(record.value() == null ? 0 : record.value().length);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            stats.failures.increment();
+            logger.warn("⚠️ Workload consumer for {} stopped: {}", topic, e.getMessage());
+        }
+    }
 }
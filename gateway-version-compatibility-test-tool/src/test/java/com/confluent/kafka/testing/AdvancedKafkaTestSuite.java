@@ -0,0 +1,156 @@
+package com.confluent.kafka.testing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.junit.platform.commons.JUnitException;
+import org.junit.platform.engine.DiscoverySelector;
+import org.junit.platform.launcher.Launcher;
+import org.junit.platform.launcher.LauncherDiscoveryRequest;
+import org.junit.platform.launcher.TagFilter;
+import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
+import org.junit.platform.launcher.core.LauncherFactory;
+import org.junit.platform.launcher.listeners.SummaryGeneratingListener;
+import org.junit.platform.launcher.listeners.TestExecutionSummary;
+import org.junit.platform.reporting.legacy.xml.LegacyXmlReportGeneratingListener;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectMethod;
+
+/**
+ * Fat-jar entry point that runs AdvancedKafkaTest through the JUnit Platform Launcher in-process.
+ * Every security mode (route) runs in the same JVM, one after another, and each gets its own
+ * JUnit XML report directory. The reports use the same legacy format Surefire writes, so
+ * existing report parsing keeps working.
+ */
+public class AdvancedKafkaTestSuite {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdvancedKafkaTestSuite.class);
+
+    public static void main(String[] args) {
+        Map<String, String> modes = new LinkedHashMap<>();
+        List<String> tests = new ArrayList<>();
+        List<String> includeTags = new ArrayList<>();
+        List<String> excludeTags = new ArrayList<>();
+        Path reportsDir = Paths.get("junit-results");
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("--help") || arg.equals("-h")) {
+                printUsage();
+                return;
+            } else if (arg.equals("--reports-dir") && i + 1 < args.length) {
+                reportsDir = Paths.get(args[++i]);
+            } else if (arg.equals("--test") && i + 1 < args.length) {
+                tests.add(args[++i]);
+            } else if (arg.equals("--include-tag") && i + 1 < args.length) {
+                includeTags.add(args[++i]);
+            } else if (arg.equals("--exclude-tag") && i + 1 < args.length) {
+                excludeTags.add(args[++i]);
+            } else if (arg.contains("=")) {
+                modes.put(arg.substring(0, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            } else {
+                logger.error("❌ Unknown argument: {}", arg);
+                printUsage();
+                System.exit(2);
+            }
+        }
+        if (modes.isEmpty()) {
+            modes.put("plaintext", "gateway:19092");
+            modes.put("sasl", "gateway:19095");
+            modes.put("ssl", "gateway:19098");
+        }
+        // Benchmarks stay opt-in, as with the Surefire excludedGroups default
+        if (excludeTags.isEmpty() && includeTags.isEmpty() && tests.isEmpty()) {
+            excludeTags.add("benchmark");
+        }
+
+        Launcher launcher = LauncherFactory.create();
+        boolean failed = false;
+        for (Map.Entry<String, String> mode : modes.entrySet()) {
+            String securityMode = mode.getKey();
+            String bootstrapServers = mode.getValue();
+            logger.info("🚀 Running AdvancedKafkaTest with security mode '{}' against {}", securityMode,
+                       bootstrapServers);
+
+            // AdvancedKafkaTest reads these when each test instance is set up
+            System.setProperty("security.mode", securityMode);
+            System.setProperty("bootstrap.servers", bootstrapServers);
+            // Per-test gateway API usage (GatewayApiUsageExtension) next to the mode's XML report
+            System.setProperty("gateway.api.usage.file",
+                               reportsDir.resolve(securityMode).resolve("gateway-api-usage.csv").toString());
+
+            SummaryGeneratingListener summary = new SummaryGeneratingListener();
+            LegacyXmlReportGeneratingListener xmlReports = new LegacyXmlReportGeneratingListener(
+                reportsDir.resolve(securityMode), new PrintWriter(System.err));
+            try {
+                launcher.execute(buildRequest(tests, includeTags, excludeTags), summary, xmlReports);
+            } catch (JUnitException e) {
+                // Discovery problems, e.g. a --test name that does not exist
+                logger.error("❌ [{}] could not run tests: {}", securityMode, e.getMessage());
+                failed = true;
+                continue;
+            }
+
+            TestExecutionSummary result = summary.getSummary();
+            logger.info("📊 [{}] tests: {}, succeeded: {}, failed: {}, skipped: {}, aborted: {}", securityMode,
+                       result.getTestsFoundCount(), result.getTestsSucceededCount(),
+                       result.getTestsFailedCount(), result.getTestsSkippedCount(),
+                       result.getTestsAbortedCount());
+            if (result.getTotalFailureCount() > 0) {
+                StringWriter failures = new StringWriter();
+                result.printFailuresTo(new PrintWriter(failures), 5);
+                logger.error("❌ [{}] failures:\n{}", securityMode, failures);
+                failed = true;
+            } else {
+                logger.info("✅ [{}] all tests passed", securityMode);
+            }
+        }
+        logger.info("📁 JUnit XML reports written to {}", reportsDir.toAbsolutePath());
+        System.exit(failed ? 1 : 0);
+    }
+
+    private static LauncherDiscoveryRequest buildRequest(List<String> tests, List<String> includeTags,
+                                                         List<String> excludeTags) {
+        List<DiscoverySelector> selectors = new ArrayList<>();
+        if (tests.isEmpty()) {
+            selectors.add(selectClass(AdvancedKafkaTest.class));
+        } else {
+            for (String test : tests) {
+                selectors.add(selectMethod(AdvancedKafkaTest.class.getName() + "#" + test));
+            }
+        }
+        LauncherDiscoveryRequestBuilder request = LauncherDiscoveryRequestBuilder.request().selectors(selectors);
+        if (!includeTags.isEmpty()) {
+            request.filters(TagFilter.includeTags(includeTags));
+        }
+        excludeTags.remove("none");
+        if (!excludeTags.isEmpty()) {
+            request.filters(TagFilter.excludeTags(excludeTags));
+        }
+        return request.build();
+    }
+
+    private static void printUsage() {
+        logger.info("Usage: java -jar advanced-kafka-test-suite.jar [options] [<security-mode>=<bootstrap-servers> ...]");
+        logger.info("");
+        logger.info("Security modes: plaintext, sasl, ssl (default: plaintext=gateway:19092 sasl=gateway:19095 ssl=gateway:19098)");
+        logger.info("Options:");
+        logger.info("  --reports-dir <dir>    JUnit XML output, one sub-directory per mode (default: junit-results)");
+        logger.info("  --test <method>        Run a single AdvancedKafkaTest method; repeatable");
+        logger.info("  --include-tag <tag>    Only run tests with this tag; repeatable");
+        logger.info("  --exclude-tag <tag>    Skip tests with this tag; repeatable (default: benchmark, 'none' for nothing)");
+        logger.info("");
+        logger.info("SASL credentials come from KAFKA_SASL_MECHANISM/USERNAME/PASSWORD; -D system properties");
+        logger.info("(clientVersion, serverVersion, benchmark.*) are passed through to the tests.");
+    }
+}
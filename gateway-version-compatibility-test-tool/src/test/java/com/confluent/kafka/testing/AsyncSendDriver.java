@@ -0,0 +1,115 @@
+package com.confluent.kafka.testing;
+
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pipelines sends through a producer without blocking on each record. A semaphore bounds the
+ * number of unacknowledged records, so the producer's buffer is never the limit, and completions
+ * are counted from the send callbacks. Call {@link #awaitCompletion} once all records are sent.
+ * Not meant to be shared by concurrent senders while awaiting completion.
+ */
+final class AsyncSendDriver<K, V> {
+
+    private static final int MAX_RETAINED_FAILURES = 100;
+
+    private final Producer<K, V> producer;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder acked = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final Queue<Exception> failures = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger retainedFailures = new AtomicInteger();
+
+    AsyncSendDriver(Producer<K, V> producer, int maxInFlight) {
+        this.producer = producer;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    void send(ProducerRecord<K, V> record) throws InterruptedException {
+        send(record, null);
+    }
+
+    /**
+     * Sends a record, blocking only while the in-flight window is full. The optional callback runs
+     * on the producer's I/O thread after the driver has counted the completion.
+     */
+    void send(ProducerRecord<K, V> record, Callback callback) throws InterruptedException {
+        inFlight.acquire();
+        sent.increment();
+        try {
+            producer.send(record, (metadata, exception) -> {
+                try {
+                    if (exception == null) {
+                        acked.increment();
+                    } else {
+                        recordFailure(exception);
+                    }
+                    if (callback != null) {
+                        callback.onCompletion(metadata, exception);
+                    }
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            // Raised synchronously, so the callback never runs
+            recordFailure(e);
+            inFlight.release();
+            if (callback != null) {
+                callback.onCompletion(null, e);
+            }
+        }
+    }
+
+    /**
+     * Flushes the producer and waits until every sent record has completed.
+     * Returns false if records were still in flight when the timeout expired.
+     */
+    boolean awaitCompletion(long timeout, TimeUnit unit) throws InterruptedException {
+        producer.flush();
+        if (!inFlight.tryAcquire(maxInFlight, timeout, unit)) {
+            return false;
+        }
+        inFlight.release(maxInFlight);
+        return true;
+    }
+
+    long sent() {
+        return sent.sum();
+    }
+
+    long acked() {
+        return acked.sum();
+    }
+
+    long failed() {
+        return failed.sum();
+    }
+
+    /**
+     * The first failures seen, up to a fixed limit.
+     */
+    List<Exception> failures() {
+        return new ArrayList<>(failures);
+    }
+
+    private void recordFailure(Exception exception) {
+        failed.increment();
+        if (retainedFailures.incrementAndGet() <= MAX_RETAINED_FAILURES) {
+            failures.add(exception);
+        }
+    }
+}
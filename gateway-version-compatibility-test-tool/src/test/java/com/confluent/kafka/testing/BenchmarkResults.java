@@ -0,0 +1,152 @@
+package com.confluent.kafka.testing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.TreeMap;
+
+/**
+ * Structured result of one benchmark run, written as JSON for benchmark_store.py to ingest.
+ * Metric names follow a suffix convention that the comparator uses to decide which direction is
+ * a regression: {@code _per_sec} and {@code _mbps} are higher-is-better, everything else
+ * (latencies in {@code _ms}, ratios, error and loss counts) is lower-is-better. Details are stored
+ * with the run but never compared: per-partition or per-window values drawn from too few samples
+ * to gate on.
+ */
+final class BenchmarkResults {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final String scenario;
+    private final long startedAtMillis = System.currentTimeMillis();
+    private final Map<String, String> context = new LinkedHashMap<>();
+    private final Map<String, String> parameters = new TreeMap<>();
+    private final Map<String, Double> metrics = new LinkedHashMap<>();
+    private final Map<String, Double> details = new LinkedHashMap<>();
+    private Map<String, Double> gatewayBefore = new TreeMap<>();
+    private Map<String, Double> gatewayAfter = new TreeMap<>();
+
+    BenchmarkResults(String scenario) {
+        this.scenario = scenario;
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith("benchmark.") && !name.startsWith("benchmark.results.")) {
+                parameters.put(name, System.getProperty(name));
+            }
+        }
+    }
+
+    String scenario() {
+        return scenario;
+    }
+
+    BenchmarkResults context(String name, String value) {
+        if (value != null) {
+            context.put(name, value);
+        }
+        return this;
+    }
+
+    BenchmarkResults parameter(String name, Object value) {
+        parameters.put(name, String.valueOf(value));
+        return this;
+    }
+
+    BenchmarkResults metric(String name, double value) {
+        metrics.put(name, value);
+        return this;
+    }
+
+    /**
+     * Records a value that is kept with the run but not checked for regressions.
+     */
+    BenchmarkResults detail(String name, double value) {
+        details.put(name, value);
+        return this;
+    }
+
+    BenchmarkResults latency(String prefix, LatencyRecorder recorder) {
+        metric(prefix + ".count", recorder.count());
+        metric(prefix + ".mean_ms", recorder.meanMillis());
+        metric(prefix + ".p50_ms", recorder.percentileMillis(50));
+        metric(prefix + ".p95_ms", recorder.percentileMillis(95));
+        metric(prefix + ".p99_ms", recorder.percentileMillis(99));
+        metric(prefix + ".p999_ms", recorder.percentileMillis(99.9));
+        metric(prefix + ".max_ms", recorder.maxMillis());
+        return this;
+    }
+
+    void gatewayBefore(Map<String, Double> snapshot) {
+        this.gatewayBefore = snapshot;
+    }
+
+    void gatewayAfter(Map<String, Double> snapshot) {
+        this.gatewayAfter = snapshot;
+    }
+
+    /**
+     * Writes {@code <scenario>-<timestamp>.json} into the directory and returns the file.
+     */
+    File write(File directory) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create benchmark results directory " + directory);
+        }
+        SimpleDateFormat fileStamp = new SimpleDateFormat("yyyyMMdd'T'HHmmss.SSS");
+        File file = new File(directory, scenario + "-" + fileStamp.format(new Date(startedAtMillis)) + ".json");
+        MAPPER.writeValue(file, toJson());
+        return file;
+    }
+
+    ObjectNode toJson() {
+        SimpleDateFormat iso = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+        iso.setTimeZone(TimeZone.getTimeZone("UTC"));
+
+        ObjectNode json = MAPPER.createObjectNode()
+            .put("scenario", scenario)
+            .put("timestamp", iso.format(new Date(startedAtMillis)))
+            .put("duration_ms", System.currentTimeMillis() - startedAtMillis);
+        json.set("context", MAPPER.valueToTree(context));
+        json.set("parameters", MAPPER.valueToTree(parameters));
+        json.set("metrics", numberMap(metrics));
+        json.set("details", numberMap(details));
+        json.set("gateway", numberMap(gatewayResources()));
+        return json;
+    }
+
+    /**
+     * Gauges are reported as their value after the run; monotonic counters as the delta over the run.
+     */
+    private Map<String, Double> gatewayResources() {
+        Map<String, Double> resources = new TreeMap<>();
+        for (Map.Entry<String, Double> entry : gatewayAfter.entrySet()) {
+            String name = entry.getKey();
+            Double before = gatewayBefore.get(name);
+            boolean counter = name.endsWith("_total") || name.endsWith("_sum") || name.endsWith("_count");
+            resources.put(name, counter && before != null ? entry.getValue() - before : entry.getValue());
+        }
+        return resources;
+    }
+
+    /**
+     * JSON has no NaN or infinity, so those values are written as null.
+     */
+    private static ObjectNode numberMap(Map<String, Double> values) {
+        ObjectNode json = MAPPER.createObjectNode();
+        for (Map.Entry<String, Double> entry : values.entrySet()) {
+            double value = entry.getValue();
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                json.putNull(entry.getKey());
+            } else {
+                json.put(entry.getKey(), value);
+            }
+        }
+        return json;
+    }
+}
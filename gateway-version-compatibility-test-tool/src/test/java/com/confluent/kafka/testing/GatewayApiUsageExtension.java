@@ -0,0 +1,159 @@
+package com.confluent.kafka.testing;
+
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Attributes gateway API usage to individual tests. Scrapes the gateway's per-API metrics before and
+ * after each test and publishes the difference per virtual cluster and API key as JUnit report
+ * entries (the suite launcher writes them into each testcase's system-out in the XML report):
+ * requests, request and response bytes, and mean latency where the gateway exposes a latency
+ * histogram. With {@code gateway.api.usage.file} set, the same rows are appended to that CSV.
+ * Does nothing when the metrics endpoint is unreachable.
+ */
+final class GatewayApiUsageExtension implements BeforeEachCallback, AfterEachCallback {
+
+    private static final Logger logger = LoggerFactory.getLogger(GatewayApiUsageExtension.class);
+
+    private static final ExtensionContext.Namespace NAMESPACE =
+        ExtensionContext.Namespace.create(GatewayApiUsageExtension.class);
+
+    private static final String REQUESTS = "kroxylicious_client_to_proxy_request_total";
+    private static final String REQUEST_SIZE = "kroxylicious_client_to_proxy_request_size_bytes";
+    private static final String RESPONSE_SIZE = "kroxylicious_proxy_to_client_response_size_bytes";
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        Map<String, Double> before = scraper().apiSnapshot();
+        if (!before.isEmpty()) {
+            context.getStore(NAMESPACE).put("before", before);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void afterEach(ExtensionContext context) {
+        Map<String, Double> before = context.getStore(NAMESPACE).remove("before", Map.class);
+        if (before == null) {
+            return;
+        }
+        Map<String, Usage> usage = usage(before, scraper().apiSnapshot());
+        if (usage.isEmpty()) {
+            return;
+        }
+        StringBuilder line = new StringBuilder();
+        for (Map.Entry<String, Usage> entry : usage.entrySet()) {
+            context.publishReportEntry("gateway." + entry.getKey(), entry.getValue().toString());
+            line.append(' ').append(entry.getKey()).append('=').append(Math.round(entry.getValue().requests));
+        }
+        logger.info("📡 Gateway API usage for {}:{}", context.getDisplayName(), line);
+
+        String file = System.getProperty("gateway.api.usage.file");
+        if (file != null && !file.isEmpty()) {
+            try {
+                appendCsv(new File(file), context.getRequiredTestMethod().getName(), usage);
+            } catch (IOException e) {
+                logger.warn("⚠️ Could not write gateway API usage to {}: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    private static GatewayMetricsScraper scraper() {
+        return new GatewayMetricsScraper(System.getProperty("gateway.metrics.url", "http://gateway:9190/metrics"));
+    }
+
+    /**
+     * Differences between two apiSnapshot() results, grouped as {@code virtual_cluster.api_key}.
+     * Groups with no traffic during the test are left out.
+     */
+    static Map<String, Usage> usage(Map<String, Double> before, Map<String, Double> after) {
+        Map<String, Usage> usage = new TreeMap<>();
+        for (Map.Entry<String, Double> sample : after.entrySet()) {
+            double delta = sample.getValue() - before.getOrDefault(sample.getKey(), 0.0);
+            if (delta <= 0) {
+                continue;
+            }
+            String key = sample.getKey();
+            String metric = key.substring(0, key.indexOf('{'));
+            Usage group = usage.computeIfAbsent(
+                GatewayMetricsScraper.label(key, "virtual_cluster") + "." + GatewayMetricsScraper.label(key, "api_key"),
+                k -> new Usage());
+            if (metric.equals(REQUESTS)) {
+                group.requests = delta;
+                group.counted = true;
+            } else if (metric.equals(REQUEST_SIZE + "_count") && !group.counted) {
+                // Older gateways have no request counter; every request is observed by the size histogram
+                group.requests = delta;
+            } else if (metric.equals(REQUEST_SIZE + "_sum")) {
+                group.requestBytes = delta;
+            } else if (metric.equals(RESPONSE_SIZE + "_sum")) {
+                group.responseBytes = delta;
+            } else if (metric.endsWith("_seconds_sum") && (metric.contains("latency") || metric.contains("duration"))) {
+                group.latencySeconds += delta;
+            } else if (metric.endsWith("_seconds_count") && (metric.contains("latency") || metric.contains("duration"))) {
+                group.latencyCount += delta;
+            }
+        }
+        usage.values().removeIf(group -> group.requests <= 0 && group.requestBytes <= 0 && group.responseBytes <= 0);
+        return usage;
+    }
+
+    private static synchronized void appendCsv(File file, String test, Map<String, Usage> usage) throws IOException {
+        boolean header = !file.exists();
+        if (file.getParentFile() != null && !file.getParentFile().isDirectory() && !file.getParentFile().mkdirs()) {
+            throw new IOException("Cannot create directory " + file.getParentFile());
+        }
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8)) {
+            if (header) {
+                writer.write("test,virtual_cluster,api_key,requests,request_bytes,response_bytes,mean_latency_ms\n");
+            }
+            for (Map.Entry<String, Usage> entry : usage.entrySet()) {
+                Usage group = entry.getValue();
+                int dot = entry.getKey().lastIndexOf('.');
+                writer.write(test + "," + entry.getKey().substring(0, dot) + "," + entry.getKey().substring(dot + 1)
+                             + "," + Math.round(group.requests) + "," + Math.round(group.requestBytes) + ","
+                             + Math.round(group.responseBytes) + ","
+                             + (group.latencyCount > 0 ? String.format(Locale.ROOT, "%.3f", group.meanLatencyMillis()) : "")
+                             + "\n");
+            }
+        }
+    }
+
+    /**
+     * What one virtual cluster spent on one API key during a test.
+     */
+    static final class Usage {
+        double requests;
+        double requestBytes;
+        double responseBytes;
+        double latencySeconds;
+        double latencyCount;
+        boolean counted;
+
+        double meanLatencyMillis() {
+            return latencyCount > 0 ? latencySeconds / latencyCount * 1000 : -1;
+        }
+
+        @Override
+        public String toString() {
+            String summary = "requests=" + Math.round(requests) + " request_bytes=" + Math.round(requestBytes)
+                             + " response_bytes=" + Math.round(responseBytes);
+            return latencyCount > 0
+                ? summary + String.format(Locale.ROOT, " mean_latency_ms=%.3f", meanLatencyMillis())
+                : summary;
+        }
+    }
+}
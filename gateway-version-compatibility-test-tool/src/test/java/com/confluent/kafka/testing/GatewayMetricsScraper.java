@@ -0,0 +1,222 @@
+package com.confluent.kafka.testing;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Reads the gateway's Prometheus endpoint and sums each metric across its label sets.
+ * Only JVM, process and system metrics are kept by default; they describe what the gateway
+ * spent (heap, CPU, threads, GC) while a benchmark ran.
+ */
+final class GatewayMetricsScraper {
+
+    private static final String[] RESOURCE_PREFIXES = {"jvm_", "process_", "system_"};
+
+    private final String metricsUrl;
+
+    GatewayMetricsScraper(String metricsUrl) {
+        this.metricsUrl = metricsUrl;
+    }
+
+    String metricsUrl() {
+        return metricsUrl;
+    }
+
+    /**
+     * Returns JVM/process/system metric totals, or an empty map if the endpoint is unreachable.
+     */
+    Map<String, Double> resourceSnapshot() {
+        try {
+            return parse(fetch(), RESOURCE_PREFIXES);
+        } catch (IOException e) {
+            return new TreeMap<>();
+        }
+    }
+
+    /**
+     * Returns heap in use, live threads and the gateway's connection metrics, or an empty map if the
+     * endpoint is unreachable. Unlike resourceSnapshot(), heap is summed over the heap pools only.
+     */
+    Map<String, Double> connectionSnapshot() {
+        String exposition;
+        try {
+            exposition = fetch();
+        } catch (IOException e) {
+            return new TreeMap<>();
+        }
+        Map<String, Double> snapshot = new TreeMap<>();
+        for (Map.Entry<String, Double> metric : parse(exposition, "kroxylicious_").entrySet()) {
+            if (metric.getKey().contains("connection")) {
+                snapshot.put(metric.getKey(), metric.getValue());
+            }
+        }
+        double heapUsed = sumWithLabel(exposition, "jvm_memory_used_bytes", "area=\"heap\"");
+        if (heapUsed >= 0) {
+            snapshot.put("jvm_memory_used_bytes_heap", heapUsed);
+        }
+        Double liveThreads = parse(exposition, "jvm_threads_live_threads").get("jvm_threads_live_threads");
+        if (liveThreads != null) {
+            snapshot.put("jvm_threads_live_threads", liveThreads);
+        }
+        return snapshot;
+    }
+
+    /**
+     * CPU time used by the gateway process so far, in seconds, or -1 if the endpoint is unreachable
+     * or exposes no process CPU counter.
+     */
+    double processCpuSeconds() {
+        Map<String, Double> cpu;
+        try {
+            cpu = parse(fetch(), "process_cpu_");
+        } catch (IOException e) {
+            return -1;
+        }
+        if (cpu.containsKey("process_cpu_seconds_total")) {
+            return cpu.get("process_cpu_seconds_total");
+        }
+        if (cpu.containsKey("process_cpu_time_ns_total")) {
+            return cpu.get("process_cpu_time_ns_total") / 1_000_000_000.0;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the gateway's per-API metrics, or an empty map if the endpoint is unreachable. Only
+     * kroxylicious_ samples with an api_key label are kept; they are summed over every other label
+     * except virtual_cluster and keyed as {@code metric{api_key="PRODUCE",virtual_cluster="plaintext"}}.
+     */
+    Map<String, Double> apiSnapshot() {
+        String exposition;
+        try {
+            exposition = fetch();
+        } catch (IOException e) {
+            return new TreeMap<>();
+        }
+        Map<String, Double> snapshot = new TreeMap<>();
+        for (String line : exposition.split("\n")) {
+            if (!line.startsWith("kroxylicious_") || !line.contains("api_key=\"")) {
+                continue;
+            }
+            int labelsEnd = line.lastIndexOf('}');
+            if (labelsEnd < 0) {
+                continue;
+            }
+            try {
+                double value = Double.parseDouble(line.substring(labelsEnd + 1).trim());
+                if (!Double.isNaN(value) && !Double.isInfinite(value)) {
+                    String key = line.substring(0, line.indexOf('{')) + "{api_key=\"" + label(line, "api_key")
+                                 + "\",virtual_cluster=\"" + label(line, "virtual_cluster") + "\"}";
+                    snapshot.merge(key, value, Double::sum);
+                }
+            } catch (NumberFormatException e) {
+                // Samples whose value is not a plain number are skipped
+            }
+        }
+        return snapshot;
+    }
+
+    String fetch() throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(metricsUrl).openConnection();
+        connection.setConnectTimeout(5000);
+        connection.setReadTimeout(10000);
+        try {
+            if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                throw new IOException("Gateway metrics returned HTTP " + connection.getResponseCode());
+            }
+            StringBuilder body = new StringBuilder();
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    body.append(line).append('\n');
+                }
+            }
+            return body.toString();
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * Sums Prometheus samples by metric name, ignoring labels. An empty prefix list keeps everything.
+     */
+    static Map<String, Double> parse(String exposition, String... prefixes) {
+        Map<String, Double> totals = new TreeMap<>();
+        for (String line : exposition.split("\n")) {
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            int nameEnd = line.indexOf('{');
+            int valueStart = line.lastIndexOf(' ');
+            if (valueStart <= 0) {
+                continue;
+            }
+            String name = line.substring(0, nameEnd > 0 && nameEnd < valueStart ? nameEnd : valueStart).trim();
+            if (!matches(name, prefixes)) {
+                continue;
+            }
+            try {
+                double value = Double.parseDouble(line.substring(valueStart + 1).trim());
+                if (!Double.isNaN(value) && !Double.isInfinite(value)) {
+                    totals.merge(name, value, Double::sum);
+                }
+            } catch (NumberFormatException e) {
+                // Samples whose value is not a plain number are skipped
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * Sums the samples of one metric whose labels contain the given fragment, e.g. {@code area="heap"}.
+     * Returns -1 if no sample matched.
+     */
+    static double sumWithLabel(String exposition, String metric, String labelFragment) {
+        double total = 0;
+        boolean found = false;
+        for (String line : exposition.split("\n")) {
+            if (!line.startsWith(metric + "{") || !line.contains(labelFragment)) {
+                continue;
+            }
+            try {
+                total += Double.parseDouble(line.substring(line.lastIndexOf(' ') + 1).trim());
+                found = true;
+            } catch (NumberFormatException e) {
+                // Samples whose value is not a plain number are skipped
+            }
+        }
+        return found ? total : -1;
+    }
+
+    /**
+     * Value of one label in a sample line, or an empty string if the sample does not carry it.
+     */
+    static String label(String line, String name) {
+        int start = line.indexOf(name + "=\"");
+        if (start < 0 || (start > 0 && line.charAt(start - 1) != '{' && line.charAt(start - 1) != ',')) {
+            return "";
+        }
+        start += name.length() + 2;
+        int end = line.indexOf('"', start);
+        return end < 0 ? "" : line.substring(start, end);
+    }
+
+    private static boolean matches(String name, String[] prefixes) {
+        if (prefixes.length == 0) {
+            return true;
+        }
+        for (String prefix : prefixes) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,113 @@
+package com.confluent.kafka.testing;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures what the benchmark harness itself allocates, so a result can show that the load
+ * generator was not competing with the gateway for CPU and GC time. Generator loops report the
+ * bytes their own thread allocated (HotSpot's per-thread allocation counter). GC counts and times
+ * cover the whole test JVM, which includes the Kafka clients.
+ */
+final class HarnessAllocationMeter {
+
+    private final LongAdder generatorBytes = new LongAdder();
+    private final LongAdder generatorRecords = new LongAdder();
+    private long startNanos;
+    private long gcCountAtStart;
+    private long gcTimeMsAtStart;
+
+    void start() {
+        generatorBytes.reset();
+        generatorRecords.reset();
+        startNanos = System.nanoTime();
+        gcCountAtStart = gcCount();
+        gcTimeMsAtStart = gcTimeMs();
+    }
+
+    /**
+     * Bytes allocated so far by the calling thread, or -1 if the JVM does not track it.
+     */
+    static long currentThreadAllocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) threads;
+            if (hotspot.isThreadAllocatedMemorySupported() && hotspot.isThreadAllocatedMemoryEnabled()) {
+                return hotspot.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Adds one generator thread's allocation, measured with {@link #currentThreadAllocatedBytes()}
+     * before and after its loop.
+     */
+    void addGenerator(long allocatedBytesBefore, long allocatedBytesAfter, long records) {
+        if (allocatedBytesBefore >= 0 && allocatedBytesAfter >= allocatedBytesBefore) {
+            generatorBytes.add(allocatedBytesAfter - allocatedBytesBefore);
+            generatorRecords.add(records);
+        }
+    }
+
+    long generatorRecords() {
+        return generatorRecords.sum();
+    }
+
+    double generatorBytesPerRecord() {
+        long records = generatorRecords.sum();
+        return records == 0 ? -1 : generatorBytes.sum() / (double) records;
+    }
+
+    double generatorMBps() {
+        double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+        return generatorRecords.sum() == 0 || seconds <= 0 ? -1 : generatorBytes.sum() / seconds / (1024 * 1024);
+    }
+
+    long gcCollections() {
+        return gcCount() - gcCountAtStart;
+    }
+
+    long gcTimeMillis() {
+        return gcTimeMs() - gcTimeMsAtStart;
+    }
+
+    void report(BenchmarkResults results) {
+        if (generatorRecords.sum() > 0) {
+            results.metric("harness.generator_alloc_bytes_per_record", generatorBytesPerRecord())
+                .metric("harness.generator_alloc_mb_per_sec", generatorMBps());
+        }
+        results.metric("harness.gc_collections", gcCollections())
+            .metric("harness.gc_time_ms", gcTimeMillis());
+    }
+
+    String summary() {
+        StringBuilder summary = new StringBuilder();
+        if (generatorRecords.sum() > 0) {
+            summary.append(String.format("generator %.1f bytes/record (%.2f MB/s over %d records), ",
+                                         generatorBytesPerRecord(), generatorMBps(), generatorRecords.sum()));
+        }
+        return summary.append(String.format("%d GCs taking %d ms over %d s", gcCollections(), gcTimeMillis(),
+                                            TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startNanos)))
+            .toString();
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long gcTimeMs() {
+        long time = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            time += Math.max(0, gc.getCollectionTime());
+        }
+        return time;
+    }
+}
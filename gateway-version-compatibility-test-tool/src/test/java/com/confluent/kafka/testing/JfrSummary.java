@@ -0,0 +1,159 @@
+package com.confluent.kafka.testing;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Summary of a gateway Java Flight Recorder recording over one benchmark run: hot methods from
+ * execution samples, allocation rate and allocation sites, and GC pauses. Not a test; the script
+ * runs it on the gateway image's own JRE, so the parser matches the JVM that wrote the recording:
+ * {@code java -cp test-classes com.confluent.kafka.testing.JfrSummary <file.jfr> [fromEpochMs toEpochMs]}.
+ * Uses only the JDK for that reason.
+ */
+final class JfrSummary {
+
+    private static final int TOP = 15;
+
+    private final Instant from;
+    private final Instant to;
+    private final Map<String, Long> executionSamples = new HashMap<>();
+    private final Map<String, Long> allocatedBytes = new HashMap<>();
+    private final Map<String, Integer> collections = new TreeMap<>();
+    private final List<Double> pauseMillis = new ArrayList<>();
+    private long samples;
+    private long allocationSamples;
+    private long totalAllocated;
+    private boolean sampledAllocations;
+    private Instant first;
+    private Instant last;
+
+    private JfrSummary(Instant from, Instant to) {
+        this.from = from;
+        this.to = to;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1 && args.length != 3) {
+            System.err.println("Usage: JfrSummary <recording.jfr> [fromEpochMs toEpochMs]");
+            System.exit(1);
+        }
+        Path recording = Paths.get(args[0]);
+        JfrSummary summary = args.length == 3
+            ? new JfrSummary(Instant.ofEpochMilli(Long.parseLong(args[1])), Instant.ofEpochMilli(Long.parseLong(args[2])))
+            : new JfrSummary(Instant.MIN, Instant.MAX);
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                summary.add(file.readEvent());
+            }
+        }
+        summary.print(recording);
+    }
+
+    private void add(RecordedEvent event) {
+        Instant start = event.getStartTime();
+        if (start.isBefore(from) || start.isAfter(to)) {
+            return;
+        }
+        first = first == null || start.isBefore(first) ? start : first;
+        last = last == null || start.isAfter(last) ? start : last;
+        switch (event.getEventType().getName()) {
+            case "jdk.ExecutionSample":
+                samples++;
+                executionSamples.merge(topFrame(event.getStackTrace()), 1L, Long::sum);
+                break;
+            case "jdk.ObjectAllocationSample":
+                // The weight is the bytes allocated since the previous sample on that thread
+                sampledAllocations = true;
+                allocation(event, event.getLong("weight"));
+                break;
+            case "jdk.ObjectAllocationInNewTLAB":
+                if (!sampledAllocations) {
+                    allocation(event, event.getLong("tlabSize"));
+                }
+                break;
+            case "jdk.ObjectAllocationOutsideTLAB":
+                if (!sampledAllocations) {
+                    allocation(event, event.getLong("allocationSize"));
+                }
+                break;
+            case "jdk.GarbageCollection":
+                collections.merge(event.getString("name"), 1, Integer::sum);
+                break;
+            case "jdk.GCPhasePause":
+                pauseMillis.add(event.getDuration().toNanos() / 1_000_000.0);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void allocation(RecordedEvent event, long bytes) {
+        allocationSamples++;
+        totalAllocated += bytes;
+        allocatedBytes.merge(topFrame(event.getStackTrace()), bytes, Long::sum);
+    }
+
+    private static String topFrame(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "<no stack>";
+        }
+        RecordedFrame frame = stackTrace.getFrames().get(0);
+        return frame.getMethod() == null ? "<unknown>"
+            : frame.getMethod().getType().getName() + "." + frame.getMethod().getName();
+    }
+
+    private void print(Path recording) {
+        double seconds = first == null ? 0 : Math.max(0.001, (last.toEpochMilli() - first.toEpochMilli()) / 1000.0);
+        System.out.printf("JFR summary: %s, %s to %s (%.1f s)%n", recording.getFileName(), first, last, seconds);
+
+        System.out.printf("Hot methods (%d execution samples):%n", samples);
+        for (Map.Entry<String, Long> entry : top(executionSamples)) {
+            System.out.printf("  %5.1f%%  %7d  %s%n", 100.0 * entry.getValue() / samples, entry.getValue(),
+                              entry.getKey());
+        }
+
+        double allocationMBps = seconds > 0 ? totalAllocated / seconds / (1024 * 1024) : 0;
+        System.out.printf("Allocation: %.1f MB/s (%s, %d events)%n", allocationMBps,
+                          sampledAllocations ? "sampled" : "TLAB events", allocationSamples);
+        for (Map.Entry<String, Long> entry : top(allocatedBytes)) {
+            System.out.printf("  %5.1f%%  %10.1f MB  %s%n", 100.0 * entry.getValue() / totalAllocated,
+                              entry.getValue() / (1024.0 * 1024), entry.getKey());
+        }
+
+        Collections.sort(pauseMillis);
+        double pauseTotal = 0;
+        for (double pause : pauseMillis) {
+            pauseTotal += pause;
+        }
+        double pauseMax = pauseMillis.isEmpty() ? 0 : pauseMillis.get(pauseMillis.size() - 1);
+        double pauseP99 = pauseMillis.isEmpty() ? 0
+            : pauseMillis.get(Math.min(pauseMillis.size() - 1, (int) Math.ceil(pauseMillis.size() * 0.99) - 1));
+        System.out.printf("GC: %s; %d pauses, total %.1f ms (%.2f%% of the window), p99 %.2f ms, max %.2f ms%n",
+                          collections.isEmpty() ? "no collections" : collections, pauseMillis.size(), pauseTotal,
+                          seconds > 0 ? pauseTotal / 10 / seconds : 0, pauseP99, pauseMax);
+
+        List<Map.Entry<String, Long>> hottest = top(executionSamples);
+        System.out.printf("JFR result: alloc_mbps=%.1f gc_pauses=%d gc_pause_total_ms=%.1f gc_pause_max_ms=%.2f "
+                          + "top_method=%s%n", allocationMBps, pauseMillis.size(), pauseTotal, pauseMax,
+                          hottest.isEmpty() ? "n/a" : hottest.get(0).getKey());
+    }
+
+    private static List<Map.Entry<String, Long>> top(Map<String, Long> counts) {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(counts.entrySet());
+        entries.sort((a, b) -> Long.compare(b.getValue(), a.getValue()));
+        return entries.subList(0, Math.min(TOP, entries.size()));
+    }
+}
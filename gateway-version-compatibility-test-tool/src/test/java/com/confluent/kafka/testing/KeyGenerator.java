@@ -0,0 +1,156 @@
+package com.confluent.kafka.testing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Chooses record keys from a fixed key space with a given skew. Keys are pre-built byte arrays, so
+ * the send loop allocates nothing to pick one, and the default partitioner maps each key to one
+ * partition, so key skew becomes partition (and partition leader) skew.
+ * <ul>
+ *   <li>{@code none}: null keys, spread by the producer's sticky partitioner</li>
+ *   <li>{@code sequential}: keys in order, wrapping around</li>
+ *   <li>{@code uniform}: every key equally likely</li>
+ *   <li>{@code zipfian}: key rank r has weight 1/r^exponent</li>
+ *   <li>{@code hotkey}: a fraction of the traffic goes to a few hot keys, the rest is uniform</li>
+ * </ul>
+ */
+final class KeyGenerator {
+
+    static final String NONE = "none";
+    static final String SEQUENTIAL = "sequential";
+    static final String UNIFORM = "uniform";
+    static final String ZIPFIAN = "zipfian";
+    static final String HOT_KEY = "hotkey";
+
+    private final String distribution;
+    private final byte[][] keys;
+    private final double[] zipfCdf;
+    private final int hotKeys;
+    private final double hotFraction;
+    private final String description;
+
+    private KeyGenerator(String distribution, int cardinality, double exponent, int hotKeys, double hotFraction) {
+        this.distribution = distribution;
+        this.keys = new byte[NONE.equals(distribution) ? 0 : cardinality][];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = ("key-" + i).getBytes(StandardCharsets.UTF_8);
+        }
+        this.zipfCdf = ZIPFIAN.equals(distribution) ? zipfCdf(cardinality, exponent) : null;
+        this.hotKeys = Math.min(hotKeys, cardinality);
+        this.hotFraction = hotFraction;
+        switch (distribution) {
+            case ZIPFIAN:
+                this.description = String.format("zipfian(%d keys, exponent %.2f)", cardinality, exponent);
+                break;
+            case HOT_KEY:
+                this.description = String.format("hotkey(%d keys, %.0f%% to %d hot)", cardinality, hotFraction * 100,
+                                                 this.hotKeys);
+                break;
+            case NONE:
+                this.description = NONE;
+                break;
+            default:
+                this.description = distribution + "(" + cardinality + " keys)";
+        }
+    }
+
+    static KeyGenerator none() {
+        return new KeyGenerator(NONE, 0, 0, 0, 0);
+    }
+
+    static KeyGenerator sequential(int cardinality) {
+        return new KeyGenerator(SEQUENTIAL, requirePositive(cardinality), 0, 0, 0);
+    }
+
+    static KeyGenerator uniform(int cardinality) {
+        return new KeyGenerator(UNIFORM, requirePositive(cardinality), 0, 0, 0);
+    }
+
+    static KeyGenerator zipfian(int cardinality, double exponent) {
+        if (exponent <= 0) {
+            throw new IllegalArgumentException("Zipfian exponent must be positive, got " + exponent);
+        }
+        return new KeyGenerator(ZIPFIAN, requirePositive(cardinality), exponent, 0, 0);
+    }
+
+    static KeyGenerator hotKey(int cardinality, int hotKeys, double hotFraction) {
+        if (hotKeys < 1 || hotFraction < 0 || hotFraction > 1) {
+            throw new IllegalArgumentException("Hot-key distribution needs hot keys >= 1 and a fraction in [0, 1]");
+        }
+        return new KeyGenerator(HOT_KEY, requirePositive(cardinality), 0, hotKeys, hotFraction);
+    }
+
+    /**
+     * Builds a generator by distribution name, e.g. from a workload file or -Dbenchmark.* property.
+     */
+    static KeyGenerator of(String distribution, int cardinality, double exponent, int hotKeys, double hotFraction) {
+        switch (distribution) {
+            case NONE:
+                return none();
+            case SEQUENTIAL:
+                return sequential(cardinality);
+            case UNIFORM:
+                return uniform(cardinality);
+            case ZIPFIAN:
+                return zipfian(cardinality, exponent);
+            case HOT_KEY:
+                return hotKey(cardinality, hotKeys, hotFraction);
+            default:
+                throw new IllegalArgumentException("Unknown key distribution '" + distribution
+                    + "' (none, sequential, uniform, zipfian, hotkey)");
+        }
+    }
+
+    /**
+     * The key for the next record, or null for the {@code none} distribution.
+     */
+    byte[] next(Random random, long sequence) {
+        switch (distribution) {
+            case SEQUENTIAL:
+                return keys[(int) (sequence % keys.length)];
+            case UNIFORM:
+                return keys[random.nextInt(keys.length)];
+            case ZIPFIAN:
+                int rank = Arrays.binarySearch(zipfCdf, random.nextDouble());
+                return keys[Math.min(keys.length - 1, rank >= 0 ? rank : -rank - 1)];
+            case HOT_KEY:
+                if (hotKeys >= keys.length || random.nextDouble() < hotFraction) {
+                    return keys[random.nextInt(hotKeys)];
+                }
+                return keys[hotKeys + random.nextInt(keys.length - hotKeys)];
+            default:
+                return null;
+        }
+    }
+
+    String distribution() {
+        return distribution;
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+
+    private static double[] zipfCdf(int cardinality, double exponent) {
+        double[] cdf = new double[cardinality];
+        double total = 0;
+        for (int rank = 1; rank <= cardinality; rank++) {
+            total += 1.0 / Math.pow(rank, exponent);
+            cdf[rank - 1] = total;
+        }
+        for (int i = 0; i < cardinality; i++) {
+            cdf[i] /= total;
+        }
+        return cdf;
+    }
+
+    private static int requirePositive(int cardinality) {
+        if (cardinality < 1) {
+            throw new IllegalArgumentException("Key cardinality must be at least 1, got " + cardinality);
+        }
+        return cardinality;
+    }
+}
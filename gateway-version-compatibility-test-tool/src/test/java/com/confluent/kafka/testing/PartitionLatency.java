@@ -0,0 +1,85 @@
+package com.confluent.kafka.testing;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Produce latency and volume per partition of one topic, to show how unevenly load lands on
+ * partitions (and on the brokers and gateway ports that lead them) under a skewed key distribution.
+ */
+final class PartitionLatency {
+
+    private final LatencyRecorder[] latency;
+    private final LongAdder[] records;
+    private final LongAdder[] bytes;
+
+    PartitionLatency(int partitions) {
+        latency = new LatencyRecorder[partitions];
+        records = new LongAdder[partitions];
+        bytes = new LongAdder[partitions];
+        for (int p = 0; p < partitions; p++) {
+            latency[p] = new LatencyRecorder();
+            records[p] = new LongAdder();
+            bytes[p] = new LongAdder();
+        }
+    }
+
+    void record(int partition, long nanos, int recordBytes) {
+        if (partition < 0 || partition >= latency.length) {
+            return;
+        }
+        latency[partition].recordNanos(nanos);
+        records[partition].increment();
+        bytes[partition].add(recordBytes);
+    }
+
+    int partitions() {
+        return latency.length;
+    }
+
+    LatencyRecorder latency(int partition) {
+        return latency[partition];
+    }
+
+    long records(int partition) {
+        return records[partition].sum();
+    }
+
+    long bytes(int partition) {
+        return bytes[partition].sum();
+    }
+
+    long totalRecords() {
+        long total = 0;
+        for (LongAdder adder : records) {
+            total += adder.sum();
+        }
+        return total;
+    }
+
+    /**
+     * The busiest partition's share of records divided by an even share: 1.0 is perfectly even,
+     * and N means one partition took everything of an N-partition topic.
+     */
+    double skew() {
+        long total = totalRecords();
+        if (total == 0) {
+            return 0.0;
+        }
+        long busiest = 0;
+        for (LongAdder adder : records) {
+            busiest = Math.max(busiest, adder.sum());
+        }
+        return busiest / (total / (double) latency.length);
+    }
+
+    /**
+     * Every partition's samples combined.
+     */
+    LatencyRecorder combined() {
+        LatencyRecorder combined = new LatencyRecorder();
+        for (LatencyRecorder recorder : latency) {
+            combined.add(recorder);
+        }
+        return combined;
+    }
+}
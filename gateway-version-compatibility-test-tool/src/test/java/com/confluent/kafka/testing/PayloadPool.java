@@ -0,0 +1,75 @@
+package com.confluent.kafka.testing;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Pre-generated record payloads that load loops reuse instead of building a key or value per record.
+ * Entropy is the fraction of each payload that is random; the rest repeats a short ASCII pattern, so
+ * 1.0 is incompressible and 0.0 compresses almost entirely. Entries differ from each other, so
+ * compression cannot collapse consecutive records into one.
+ */
+final class PayloadPool {
+
+    private static final byte[] PATTERN = "gateway-benchmark-payload-".getBytes(java.nio.charset.StandardCharsets.US_ASCII);
+
+    private final byte[][] entries;
+
+    PayloadPool(int entries, int size, double entropy, long seed) {
+        this(filled(entries, size), entropy, seed);
+    }
+
+    /**
+     * One entry per size, so a pool sampled from a size distribution reproduces that distribution.
+     */
+    PayloadPool(int[] sizes, double entropy, long seed) {
+        if (sizes.length == 0) {
+            throw new IllegalArgumentException("Payload pool needs at least one entry");
+        }
+        Random random = new Random(seed);
+        double randomFraction = Math.max(0.0, Math.min(1.0, entropy));
+        this.entries = new byte[sizes.length][];
+        for (int i = 0; i < sizes.length; i++) {
+            int randomBytes = (int) Math.round(sizes[i] * randomFraction);
+            byte[] payload = new byte[sizes[i]];
+            for (int b = randomBytes; b < sizes[i]; b++) {
+                payload[b] = PATTERN[(b + i) % PATTERN.length];
+            }
+            byte[] noise = new byte[randomBytes];
+            random.nextBytes(noise);
+            System.arraycopy(noise, 0, payload, 0, randomBytes);
+            this.entries[i] = payload;
+        }
+    }
+
+    /**
+     * Wraps payloads built elsewhere, such as records already encoded for a schema.
+     */
+    PayloadPool(byte[][] entries) {
+        if (entries.length == 0) {
+            throw new IllegalArgumentException("Payload pool needs at least one entry");
+        }
+        this.entries = entries.clone();
+    }
+
+    private static int[] filled(int entries, int size) {
+        if (entries <= 0 || size < 0) {
+            throw new IllegalArgumentException("Payload pool needs at least one entry and a non-negative size");
+        }
+        int[] sizes = new int[entries];
+        Arrays.fill(sizes, size);
+        return sizes;
+    }
+
+    /**
+     * The payload for the given sequence number. Callers keep their own counter, so a pool can be
+     * shared between threads without any coordination.
+     */
+    byte[] get(long sequence) {
+        return entries[(int) Math.floorMod(sequence, (long) entries.length)];
+    }
+
+    int entries() {
+        return entries.length;
+    }
+}
@@ -0,0 +1,83 @@
+package com.confluent.kafka.testing;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latency recorded by a large fleet of clients. All samples go into one shared histogram, and each
+ * client also keeps a running sum, count and maximum so the spread between clients can be reported
+ * without a full histogram per client.
+ */
+final class PerClientLatency {
+
+    private final LatencyRecorder all = new LatencyRecorder();
+    private final AtomicLongArray sumMicros;
+    private final AtomicLongArray counts;
+    private final AtomicLongArray maxMicros;
+
+    PerClientLatency(int clients) {
+        this.sumMicros = new AtomicLongArray(clients);
+        this.counts = new AtomicLongArray(clients);
+        this.maxMicros = new AtomicLongArray(clients);
+    }
+
+    void recordNanos(int client, long nanos) {
+        long micros = Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos));
+        all.recordMicros(micros);
+        sumMicros.addAndGet(client, micros);
+        counts.incrementAndGet(client);
+        long currentMax;
+        while (micros > (currentMax = maxMicros.get(client))) {
+            if (maxMicros.compareAndSet(client, currentMax, micros)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Every sample from every client.
+     */
+    LatencyRecorder all() {
+        return all;
+    }
+
+    /**
+     * One sample per client that recorded anything: that client's mean latency.
+     */
+    LatencyRecorder clientMeans() {
+        LatencyRecorder means = new LatencyRecorder();
+        for (int i = 0; i < counts.length(); i++) {
+            long n = counts.get(i);
+            if (n > 0) {
+                means.recordMicros(sumMicros.get(i) / n);
+            }
+        }
+        return means;
+    }
+
+    /**
+     * One sample per client that recorded anything: the worst latency that client saw.
+     */
+    LatencyRecorder clientMaxima() {
+        LatencyRecorder maxima = new LatencyRecorder();
+        for (int i = 0; i < counts.length(); i++) {
+            if (counts.get(i) > 0) {
+                maxima.recordMicros(maxMicros.get(i));
+            }
+        }
+        return maxima;
+    }
+
+    /**
+     * Number of clients that recorded at least one sample.
+     */
+    int activeClients() {
+        int active = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            if (counts.get(i) > 0) {
+                active++;
+            }
+        }
+        return active;
+    }
+}
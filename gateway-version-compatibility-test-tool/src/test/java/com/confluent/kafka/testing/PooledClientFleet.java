@@ -0,0 +1,252 @@
+package com.confluent.kafka.testing;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs a fleet of low-rate clients, each with its own connection, on a fixed number of threads
+ * instead of one blocked thread per client. A connect pool opens clients as they are started; a
+ * small scheduler then sends each producer's record once per interval, and a few poller threads
+ * each own a share of the consumers and poll them in turn. This keeps the full requested fleet on
+ * JDKs without virtual threads. Every KafkaProducer and KafkaConsumer still has its own network
+ * state (and every producer its own I/O thread), which is the per-connection cost being measured.
+ */
+final class PooledClientFleet implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(PooledClientFleet.class);
+
+    private final Properties clientProps;
+    private final ExecutorService connectPool;
+    private final ScheduledExecutorService sendScheduler;
+    private final List<Poller> pollers = new ArrayList<>();
+    private final Queue<AutoCloseable> clients = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean running = new AtomicBoolean(true);
+    private final AtomicInteger nextPoller = new AtomicInteger();
+    private final int threads;
+
+    PooledClientFleet(Properties clientProps, int connectThreads, int sendThreads, int pollerThreads) {
+        this.clientProps = clientProps;
+        this.connectPool = Executors.newFixedThreadPool(connectThreads, daemon("fleet-connect"));
+        this.sendScheduler = Executors.newScheduledThreadPool(sendThreads, daemon("fleet-send"));
+        ThreadFactory pollerFactory = daemon("fleet-poll");
+        for (int i = 0; i < pollerThreads; i++) {
+            Poller poller = new Poller();
+            pollers.add(poller);
+            pollerFactory.newThread(poller).start();
+        }
+        this.threads = connectThreads + sendThreads + pollerThreads;
+    }
+
+    /**
+     * Harness threads driving the fleet, whatever its size.
+     */
+    int threads() {
+        return threads;
+    }
+
+    /**
+     * Connects a producer on the connect pool, then sends one record per interval from the scheduler,
+     * starting at a random point in the first interval so the fleet's sends are spread out. Latency is
+     * measured from each send to its ack.
+     */
+    void startProducer(int client, String topic, int intervalMs, PerClientLatency latency, LongAdder failures,
+                       CountDownLatch ready) {
+        connectPool.execute(() -> {
+            Properties producerProps = new Properties();
+            producerProps.putAll(clientProps);
+            producerProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+            producerProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+            producerProps.put(ProducerConfig.CLIENT_ID_CONFIG, "fleet-producer-" + client);
+            producerProps.put(ProducerConfig.ACKS_CONFIG, "all");
+            producerProps.put(ProducerConfig.LINGER_MS_CONFIG, 0);
+            try {
+                Producer<byte[], byte[]> producer = new KafkaProducer<>(producerProps);
+                clients.add(producer);
+                producer.partitionsFor(topic); // Connects before the client counts as ready
+                byte[] value = new byte[100];
+                sendScheduler.scheduleAtFixedRate(() -> {
+                    if (!running.get()) {
+                        return;
+                    }
+                    long sentAt = System.nanoTime();
+                    try {
+                        producer.send(new ProducerRecord<>(topic, value), (metadata, exception) -> {
+                            if (exception != null) {
+                                failures.increment();
+                            } else {
+                                latency.recordNanos(client, System.nanoTime() - sentAt);
+                            }
+                        });
+                    } catch (Exception e) {
+                        failures.increment();
+                    }
+                }, ThreadLocalRandom.current().nextLong(intervalMs), intervalMs, TimeUnit.MILLISECONDS);
+            } catch (Exception e) {
+                failures.increment();
+                logger.debug("Fleet producer {} did not start: {}", client, e.getMessage());
+            } finally {
+                ready.countDown();
+            }
+        });
+    }
+
+    /**
+     * Connects a consumer on the connect pool, assigned a single partition from its end, and hands it to
+     * the next poller. Latency is measured from each record's create time to when it was polled.
+     */
+    void startConsumer(int client, TopicPartition partition, PerClientLatency latency, LongAdder failures,
+                       CountDownLatch ready) {
+        connectPool.execute(() -> {
+            Properties consumerProps = new Properties();
+            consumerProps.putAll(clientProps);
+            consumerProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+            consumerProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+            consumerProps.put(ConsumerConfig.CLIENT_ID_CONFIG, "fleet-consumer-" + client);
+            consumerProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+            try {
+                Consumer<byte[], byte[]> consumer = new KafkaConsumer<>(consumerProps);
+                clients.add(consumer);
+                consumer.assign(Collections.singletonList(partition));
+                consumer.seekToEnd(Collections.singletonList(partition));
+                consumer.position(partition); // Connects before the client counts as ready
+                pollers.get(nextPoller.getAndIncrement() % pollers.size())
+                    .added.add(new PolledConsumer(client, consumer, latency, failures));
+            } catch (Exception e) {
+                failures.increment();
+                logger.debug("Fleet consumer {} did not start: {}", client, e.getMessage());
+            } finally {
+                ready.countDown();
+            }
+        });
+    }
+
+    /**
+     * Stops sending and polling, waits for the threads and closes every client.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        running.set(false);
+        connectPool.shutdown();
+        sendScheduler.shutdown();
+        connectPool.awaitTermination(60, TimeUnit.SECONDS);
+        sendScheduler.awaitTermination(10, TimeUnit.SECONDS);
+        for (Poller poller : pollers) {
+            poller.stopped.await(10, TimeUnit.SECONDS);
+        }
+        AutoCloseable client;
+        while ((client = clients.poll()) != null) {
+            try {
+                client.close();
+            } catch (Exception e) {
+                logger.debug("Fleet client did not close cleanly: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class PolledConsumer {
+        final int client;
+        final Consumer<byte[], byte[]> consumer;
+        final PerClientLatency latency;
+        final LongAdder failures;
+        boolean failed;
+
+        PolledConsumer(int client, Consumer<byte[], byte[]> consumer, PerClientLatency latency,
+                       LongAdder failures) {
+            this.client = client;
+            this.consumer = consumer;
+            this.latency = latency;
+            this.failures = failures;
+        }
+    }
+
+    /**
+     * Owns a share of the consumers and polls each in turn without blocking, sleeping briefly after a
+     * pass that returned nothing. A consumer is only ever touched by its poller once handed over.
+     */
+    private final class Poller implements Runnable {
+        final Queue<PolledConsumer> added = new ConcurrentLinkedQueue<>();
+        final CountDownLatch stopped = new CountDownLatch(1);
+
+        @Override
+        public void run() {
+            List<PolledConsumer> owned = new ArrayList<>();
+            try {
+                while (running.get()) {
+                    PolledConsumer next;
+                    while ((next = added.poll()) != null) {
+                        owned.add(next);
+                    }
+                    boolean received = false;
+                    for (PolledConsumer polled : owned) {
+                        received |= poll(polled);
+                    }
+                    if (!received) {
+                        Thread.sleep(10);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                stopped.countDown();
+            }
+        }
+
+        private boolean poll(PolledConsumer polled) {
+            if (polled.failed) {
+                return false;
+            }
+            try {
+                boolean received = false;
+                long now = System.currentTimeMillis();
+                for (ConsumerRecord<byte[], byte[]> record : polled.consumer.poll(Duration.ZERO)) {
+                    polled.latency.recordNanos(polled.client, TimeUnit.MILLISECONDS.toNanos(now - record.timestamp()));
+                    received = true;
+                }
+                return received;
+            } catch (Exception e) {
+                polled.failed = true;
+                polled.failures.increment();
+                logger.debug("Fleet consumer {} stopped: {}", polled.client, e.getMessage());
+                return false;
+            }
+        }
+    }
+}
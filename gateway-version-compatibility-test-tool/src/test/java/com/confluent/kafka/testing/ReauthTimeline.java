@@ -0,0 +1,138 @@
+package com.confluent.kafka.testing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-request latency and the SASL re-authentications a client went through, on one System.nanoTime()
+ * timeline, so spikes caused by re-authentication can be told apart from ordinary tail latency. A
+ * request is "near" a re-authentication if its send-to-ack interval overlaps the window around it.
+ * Requests are recorded from producer callbacks; events come in time order from a single sampler.
+ */
+final class ReauthTimeline {
+
+    private final long[] sendNanos;
+    private final long[] latencyNanos;
+    private final AtomicInteger samples = new AtomicInteger();
+    private final List<Long> events = new ArrayList<>();
+
+    ReauthTimeline(int capacity) {
+        sendNanos = new long[capacity];
+        latencyNanos = new long[capacity];
+    }
+
+    /**
+     * Records one request. Requests beyond the capacity are dropped and counted in {@link #dropped()}.
+     */
+    void record(long sentAtNanos, long nanos) {
+        int index = samples.getAndIncrement();
+        if (index < sendNanos.length) {
+            sendNanos[index] = sentAtNanos;
+            latencyNanos[index] = nanos;
+        }
+    }
+
+    synchronized void event(long atNanos) {
+        events.add(atNanos);
+    }
+
+    synchronized int events() {
+        return events.size();
+    }
+
+    int requests() {
+        return Math.min(samples.get(), sendNanos.length);
+    }
+
+    int dropped() {
+        return Math.max(0, samples.get() - sendNanos.length);
+    }
+
+    /**
+     * Mean time between re-authentications in seconds, or -1 with fewer than two of them.
+     */
+    synchronized double meanIntervalSeconds() {
+        if (events.size() < 2) {
+            return -1;
+        }
+        return (events.get(events.size() - 1) - events.get(0)) / 1_000_000_000.0 / (events.size() - 1);
+    }
+
+    /**
+     * Splits the requests into those near a re-authentication and the rest, and finds the slowest
+     * request near each re-authentication. Call once recording has finished.
+     */
+    Split split(long windowNanos) {
+        long[] eventNanos = eventArray();
+        Split split = new Split(eventNanos.length);
+        for (int i = 0; i < requests(); i++) {
+            int event = nearestEvent(eventNanos, sendNanos[i], latencyNanos[i], windowNanos);
+            if (event < 0) {
+                split.baseline.recordNanos(latencyNanos[i]);
+            } else {
+                split.near.recordNanos(latencyNanos[i]);
+                split.eventMaxMillis[event] = Math.max(split.eventMaxMillis[event], latencyNanos[i] / 1_000_000.0);
+            }
+        }
+        return split;
+    }
+
+    /**
+     * Of the requests slower than the threshold, the share that were near a re-authentication, or -1
+     * if none were that slow. A share close to 1 means re-authentication explains the tail.
+     */
+    double tailShareNearEvents(long windowNanos, long thresholdNanos) {
+        long[] eventNanos = eventArray();
+        int slow = 0;
+        int slowNear = 0;
+        for (int i = 0; i < requests(); i++) {
+            if (latencyNanos[i] > thresholdNanos) {
+                slow++;
+                if (nearestEvent(eventNanos, sendNanos[i], latencyNanos[i], windowNanos) >= 0) {
+                    slowNear++;
+                }
+            }
+        }
+        return slow == 0 ? -1 : slowNear / (double) slow;
+    }
+
+    private synchronized long[] eventArray() {
+        long[] eventNanos = new long[events.size()];
+        for (int e = 0; e < eventNanos.length; e++) {
+            eventNanos[e] = events.get(e);
+        }
+        return eventNanos;
+    }
+
+    /**
+     * The first event whose window overlaps [sent, sent + latency], or -1.
+     */
+    private static int nearestEvent(long[] eventNanos, long sentAtNanos, long nanos, long windowNanos) {
+        int low = 0;
+        int high = eventNanos.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (eventNanos[mid] < sentAtNanos - windowNanos) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low < eventNanos.length && eventNanos[low] <= sentAtNanos + nanos + windowNanos ? low : -1;
+    }
+
+    /**
+     * Latency near re-authentications, latency elsewhere, and the slowest request near each one
+     * (0 if no request overlapped it).
+     */
+    static final class Split {
+        final LatencyRecorder near = new LatencyRecorder();
+        final LatencyRecorder baseline = new LatencyRecorder();
+        final double[] eventMaxMillis;
+
+        private Split(int events) {
+            eventMaxMillis = new double[events];
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.confluent.kafka.testing;
+
+import java.util.BitSet;
+
+/**
+ * Tracks what a continuous sequence-numbered produce/consume workload sees across a gateway restart.
+ * A disruption starts at the first failed send, or when no send has been acknowledged for the stall
+ * threshold. It ends once the producer gets an ack and the consumer gets a record after the
+ * disruption was detected. All timestamps are epoch milliseconds, so they line up with a restart
+ * time written by another process.
+ */
+final class RecoveryTracker {
+
+    private final long stallMs;
+    private final BitSet acked = new BitSet();
+    private final BitSet consumed = new BitSet();
+
+    private long ackedCount;
+    private long failedSends;
+    private long consumedCount;
+    private long duplicates;
+    private long lastAckMs;
+
+    private long restartAtMs;
+    private long firstErrorAtMs;
+    private long disruptionStartMs;
+    private long firstAckAfterMs;
+    private long firstConsumeAfterMs;
+
+    RecoveryTracker(long stallMs) {
+        this.stallMs = stallMs;
+    }
+
+    synchronized void markRestart(long nowMs) {
+        if (restartAtMs == 0) {
+            restartAtMs = nowMs;
+        }
+    }
+
+    synchronized void onAck(int sequence, long nowMs) {
+        if (!acked.get(sequence)) {
+            acked.set(sequence);
+            ackedCount++;
+        }
+        lastAckMs = nowMs;
+        if (firstErrorAtMs > 0 && firstAckAfterMs == 0 && nowMs >= firstErrorAtMs) {
+            firstAckAfterMs = nowMs;
+        }
+    }
+
+    synchronized void onSendError(long nowMs) {
+        failedSends++;
+        startDisruption(nowMs);
+    }
+
+    synchronized void onConsumed(int sequence, long nowMs) {
+        if (consumed.get(sequence)) {
+            duplicates++;
+        } else {
+            consumed.set(sequence);
+            consumedCount++;
+        }
+        if (firstErrorAtMs > 0 && firstConsumeAfterMs == 0 && nowMs >= firstErrorAtMs) {
+            firstConsumeAfterMs = nowMs;
+        }
+    }
+
+    /**
+     * Called periodically to turn a silent stall into a disruption.
+     */
+    synchronized void check(long nowMs) {
+        if (lastAckMs > 0 && nowMs - lastAckMs > stallMs) {
+            startDisruption(nowMs);
+        }
+    }
+
+    private void startDisruption(long nowMs) {
+        if (firstErrorAtMs == 0) {
+            firstErrorAtMs = nowMs;
+            disruptionStartMs = lastAckMs > 0 ? Math.min(lastAckMs, nowMs) : nowMs;
+        }
+    }
+
+    synchronized boolean allAckedConsumed() {
+        BitSet missing = (BitSet) acked.clone();
+        missing.andNot(consumed);
+        return missing.isEmpty();
+    }
+
+    synchronized long lost() {
+        BitSet missing = (BitSet) acked.clone();
+        missing.andNot(consumed);
+        return missing.cardinality();
+    }
+
+    synchronized long ackedCount() {
+        return ackedCount;
+    }
+
+    synchronized long failedSends() {
+        return failedSends;
+    }
+
+    synchronized long consumedCount() {
+        return consumedCount;
+    }
+
+    synchronized long duplicates() {
+        return duplicates;
+    }
+
+    synchronized long restartAtMs() {
+        return restartAtMs;
+    }
+
+    synchronized boolean disrupted() {
+        return firstErrorAtMs > 0;
+    }
+
+    synchronized boolean recovered() {
+        return firstAckAfterMs > 0 && firstConsumeAfterMs > 0;
+    }
+
+    /**
+     * Milliseconds from the restart to the first client-visible error, or -1 if unknown.
+     */
+    synchronized long timeToFirstErrorMs() {
+        return restartAtMs > 0 && firstErrorAtMs > 0 ? firstErrorAtMs - restartAtMs : -1;
+    }
+
+    /**
+     * Milliseconds from the restart until both produce and consume were flowing again, or -1 if unknown.
+     */
+    synchronized long timeToRecoveryMs() {
+        return restartAtMs > 0 && recovered() ? recoveredAtMs() - restartAtMs : -1;
+    }
+
+    /**
+     * Milliseconds between the last ack before the disruption and recovery, or -1 if it never recovered.
+     */
+    synchronized long outageMs() {
+        return recovered() ? recoveredAtMs() - disruptionStartMs : -1;
+    }
+
+    private long recoveredAtMs() {
+        return Math.max(firstAckAfterMs, firstConsumeAfterMs);
+    }
+}
@@ -0,0 +1,188 @@
+package com.confluent.kafka.testing;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * The same "Order" record as Avro, JSON Schema and Protobuf, encoded in the Schema Registry wire
+ * format (magic byte 0, 4-byte schema id, then the payload). Encoding is done by hand so the
+ * benchmarks need no serializer dependencies and the bytes on the wire are identical on every
+ * client version. Each record has an id, a customer, an amount and a note that pads the record to
+ * the requested size.
+ */
+enum SchemaFormat {
+
+    AVRO("AVRO",
+         "{\"type\":\"record\",\"name\":\"Order\",\"namespace\":\"com.confluent.kafka.testing\",\"fields\":["
+             + "{\"name\":\"id\",\"type\":\"long\"},{\"name\":\"customer\",\"type\":\"string\"},"
+             + "{\"name\":\"amount\",\"type\":\"double\"},{\"name\":\"note\",\"type\":\"string\"}]}"),
+    JSON("JSON",
+         "{\"$schema\":\"http://json-schema.org/draft-07/schema#\",\"title\":\"Order\",\"type\":\"object\","
+             + "\"properties\":{\"id\":{\"type\":\"integer\"},\"customer\":{\"type\":\"string\"},"
+             + "\"amount\":{\"type\":\"number\"},\"note\":{\"type\":\"string\"}},"
+             + "\"required\":[\"id\",\"customer\",\"amount\",\"note\"],\"additionalProperties\":false}"),
+    PROTOBUF("PROTOBUF",
+             "syntax = \"proto3\";\npackage com.confluent.kafka.testing;\n\n"
+                 + "message Order {\n  int64 id = 1;\n  string customer = 2;\n  double amount = 3;\n"
+                 + "  string note = 4;\n}\n");
+
+    private static final byte MAGIC_BYTE = 0;
+    private static final char[] LETTERS = "abcdefghijklmnopqrstuvwxyz".toCharArray();
+
+    final String schemaType;
+    final String schema;
+
+    SchemaFormat(String schemaType, String schema) {
+        this.schemaType = schemaType;
+        this.schema = schema;
+    }
+
+    static SchemaFormat of(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown schema format '" + name + "' (avro, json, protobuf)");
+        }
+    }
+
+    String label() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Distinct records for the given schema id, each within a few bytes of recordSize.
+     */
+    byte[][] records(int schemaId, int entries, int recordSize, long seed) {
+        Random random = new Random(seed);
+        byte[][] records = new byte[entries][];
+        for (int i = 0; i < entries; i++) {
+            long id = random.nextLong() & Long.MAX_VALUE;
+            String customer = "customer-" + random.nextInt(100000);
+            double amount = Math.round(random.nextDouble() * 100000) / 100.0;
+            int overhead = encode(schemaId, id, customer, amount, "").length;
+            records[i] = encode(schemaId, id, customer, amount, letters(random, recordSize - overhead));
+        }
+        return records;
+    }
+
+    /**
+     * One record in wire format. The schema id need not be registered, which is how callers build
+     * records that validation should reject.
+     */
+    byte[] encode(int schemaId, long id, String customer, double amount, String note) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(MAGIC_BYTE);
+        out.write(schemaId >>> 24);
+        out.write(schemaId >>> 16);
+        out.write(schemaId >>> 8);
+        out.write(schemaId);
+        switch (this) {
+            case AVRO:
+                writeVarint(out, zigZag(id));
+                writeAvroString(out, customer);
+                writeDouble(out, amount);
+                writeAvroString(out, note);
+                break;
+            case JSON:
+                // Customer and note are generated from plain ASCII, so they need no escaping
+                writeBytes(out, ("{\"id\":" + id + ",\"customer\":\"" + customer + "\",\"amount\":" + amount
+                    + ",\"note\":\"" + note + "\"}").getBytes(StandardCharsets.UTF_8));
+                break;
+            case PROTOBUF:
+                // Message indexes: a single 0 means the first message in the schema
+                out.write(0);
+                out.write(1 << 3);
+                writeVarint(out, id);
+                writeProtobufString(out, 2, customer);
+                out.write(3 << 3 | 1);
+                writeDouble(out, amount);
+                writeProtobufString(out, 4, note);
+                break;
+            default:
+                throw new IllegalStateException(name());
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * An Avro record schema with a long "id" followed by string fields. The first taggedFields of them
+     * carry "confluent:tags" with the given tag, which is what field-level rules select on.
+     */
+    static String avroSchema(String name, String[] stringFields, int taggedFields, String tag) {
+        StringBuilder schema = new StringBuilder("{\"type\":\"record\",\"name\":\"").append(name)
+            .append("\",\"namespace\":\"com.confluent.kafka.testing\",\"fields\":[{\"name\":\"id\",\"type\":\"long\"}");
+        for (int i = 0; i < stringFields.length; i++) {
+            schema.append(",{\"name\":\"").append(stringFields[i]).append("\",\"type\":\"string\"");
+            if (i < taggedFields) {
+                schema.append(",\"confluent:tags\":[\"").append(tag).append("\"]");
+            }
+            schema.append('}');
+        }
+        return schema.append("]}").toString();
+    }
+
+    /**
+     * A record of an {@link #avroSchema} schema in wire format: the id, then each string in order.
+     */
+    static byte[] avroRecord(int schemaId, long id, String... strings) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(MAGIC_BYTE);
+        out.write(schemaId >>> 24);
+        out.write(schemaId >>> 16);
+        out.write(schemaId >>> 8);
+        out.write(schemaId);
+        writeVarint(out, zigZag(id));
+        for (String value : strings) {
+            writeAvroString(out, value);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Random lowercase ASCII of the given length, empty if the length is not positive.
+     */
+    static String letters(Random random, int length) {
+        char[] letters = new char[Math.max(0, length)];
+        for (int i = 0; i < letters.length; i++) {
+            letters[i] = LETTERS[random.nextInt(LETTERS.length)];
+        }
+        return new String(letters);
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static void writeDouble(ByteArrayOutputStream out, double value) {
+        writeBytes(out, ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putDouble(value).array());
+    }
+
+    private static void writeAvroString(ByteArrayOutputStream out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, zigZag(bytes.length));
+        writeBytes(out, bytes);
+    }
+
+    private static void writeProtobufString(ByteArrayOutputStream out, int field, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.write(field << 3 | 2);
+        writeVarint(out, bytes.length);
+        writeBytes(out, bytes);
+    }
+
+    private static void writeBytes(ByteArrayOutputStream out, byte[] bytes) {
+        out.write(bytes, 0, bytes.length);
+    }
+}
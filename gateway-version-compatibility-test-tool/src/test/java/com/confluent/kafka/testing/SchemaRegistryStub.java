@@ -0,0 +1,424 @@
+package com.confluent.kafka.testing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A minimal in-memory Schema Registry for benchmarks, so the gateway's schema validation can be
+ * measured without running the real registry. It answers the read paths a serializer or the gateway
+ * uses (schema by id, subject versions, lookup) plus registration, with the registry's JSON shapes
+ * and error codes. Schemas may carry a data-contract ruleSet, and the DEK Registry endpoints used by
+ * the encryption rule executors keep key encryption keys and data keys in memory. Every request is
+ * counted and timed by endpoint, and a response delay can be injected to play a slow registry.
+ * There is no compatibility checking and nothing is persisted.
+ */
+final class SchemaRegistryStub implements AutoCloseable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String CONTENT_TYPE = "application/vnd.schemaregistry.v1+json";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<Integer, RegisteredSchema> schemasById = new ConcurrentHashMap<>();
+    private final Map<String, List<RegisteredSchema>> subjects = new ConcurrentHashMap<>();
+    private final Map<String, ObjectNode> keks = new ConcurrentHashMap<>();
+    private final Map<String, ObjectNode> deks = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId;
+    private final Map<String, LongAdder> requestCounts = new ConcurrentHashMap<>();
+    private final LatencyRecorder serviceTime = new LatencyRecorder();
+    private volatile long responseDelayMillis;
+
+    private SchemaRegistryStub(HttpServer server, int firstId) {
+        this.server = server;
+        this.nextId = new AtomicInteger(firstId);
+        this.executor = Executors.newFixedThreadPool(8, runnable -> {
+            Thread thread = new Thread(runnable, "schema-registry-stub");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+    }
+
+    /**
+     * Starts a registry on every interface, so a gateway container can reach it by the test host's name.
+     */
+    static SchemaRegistryStub start(int port) throws IOException {
+        return start(port, 1);
+    }
+
+    /**
+     * Starts a registry that hands out schema ids from firstId, so a long-running gateway that cached
+     * ids from an earlier run sees them as new schemas.
+     */
+    static SchemaRegistryStub start(int port, int firstId) throws IOException {
+        SchemaRegistryStub stub = new SchemaRegistryStub(HttpServer.create(new InetSocketAddress(port), 0), firstId);
+        stub.server.start();
+        return stub;
+    }
+
+    int port() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Delays every response by the given time, as a slow or distant registry would.
+     */
+    void responseDelay(long millis) {
+        this.responseDelayMillis = millis;
+    }
+
+    /**
+     * Requests served since the last {@link #resetCounts()}, by endpoint, e.g. "GET schemas/ids/{}".
+     */
+    Map<String, Long> requestsByEndpoint() {
+        Map<String, Long> counts = new TreeMap<>();
+        requestCounts.forEach((endpoint, count) -> counts.put(endpoint, count.sum()));
+        return counts;
+    }
+
+    long requests() {
+        long total = 0;
+        for (LongAdder count : requestCounts.values()) {
+            total += count.sum();
+        }
+        return total;
+    }
+
+    /**
+     * Time from receiving a request to sending its response, including any injected delay.
+     */
+    LatencyRecorder serviceTime() {
+        return serviceTime;
+    }
+
+    void resetCounts() {
+        requestCounts.clear();
+        serviceTime.reset();
+    }
+
+    int register(String subject, String schemaType, String schema) {
+        return register(subject, schemaType, schema, null);
+    }
+
+    /**
+     * Registers a schema, with an optional ruleSet, under a subject and returns its id. Registering
+     * the same schema and rules again, under any subject, returns the existing id, as the real
+     * registry does.
+     */
+    synchronized int register(String subject, String schemaType, String schema, JsonNode ruleSet) {
+        List<RegisteredSchema> versions = subjects.computeIfAbsent(subject, s -> new CopyOnWriteArrayList<>());
+        for (RegisteredSchema existing : versions) {
+            if (existing.matches(schemaType, schema, ruleSet)) {
+                return existing.id;
+            }
+        }
+        int id = -1;
+        for (RegisteredSchema known : schemasById.values()) {
+            if (known.matches(schemaType, schema, ruleSet)) {
+                id = known.id;
+                break;
+            }
+        }
+        if (id < 0) {
+            id = nextId.getAndIncrement();
+        }
+        RegisteredSchema registered = new RegisteredSchema(subject, versions.size() + 1, id, schemaType, schema,
+                                                           ruleSet);
+        versions.add(registered);
+        schemasById.putIfAbsent(id, registered);
+        return id;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        long receivedNanos = System.nanoTime();
+        try {
+            String[] path = exchange.getRequestURI().getRawPath().replaceAll("^/+|/+$", "").split("/");
+            boolean post = "POST".equalsIgnoreCase(exchange.getRequestMethod());
+            requestCounts.computeIfAbsent(endpoint(path, post), e -> new LongAdder()).increment();
+            long delay = responseDelayMillis;
+            if (delay > 0) {
+                TimeUnit.MILLISECONDS.sleep(delay);
+            }
+            JsonNode body = post ? MAPPER.readTree(exchange.getRequestBody()) : null;
+            JsonNode response = "dek-registry".equals(path[0])
+                ? routeDekRegistry(path, post, body, exchange.getRequestURI().getRawQuery())
+                : route(path, post, body);
+            if (response == null && "dek-registry".equals(path[0])) {
+                respond(exchange, 404, path.length > 4 ? error(40471, "Dek not found") : error(40470, "Kek not found"));
+            } else if (response == null) {
+                respond(exchange, 404, error(40403, "Schema not found"));
+            } else {
+                respond(exchange, 200, response);
+            }
+        } catch (RuntimeException e) {
+            respond(exchange, 500, error(50001, e.toString()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            respond(exchange, 500, error(50001, "Interrupted"));
+        } finally {
+            serviceTime.recordNanos(System.nanoTime() - receivedNanos);
+            exchange.close();
+        }
+    }
+
+    /**
+     * The request path with ids, subjects and versions replaced by placeholders.
+     */
+    private static String endpoint(String[] path, boolean post) {
+        StringBuilder endpoint = new StringBuilder(post ? "POST " : "GET ");
+        for (int i = 0; i < path.length; i++) {
+            boolean placeholder = "schemas".equals(path[0]) ? i == 2
+                : "subjects".equals(path[0]) ? i == 1 || i == 3
+                : "dek-registry".equals(path[0]) ? i == 3 || i == 5 || i == 7
+                : i == 1;
+            endpoint.append(i == 0 ? "" : "/").append(placeholder ? "{}" : path[i]);
+        }
+        return endpoint.toString();
+    }
+
+    /**
+     * The response for a request path, or null when the subject, version or id is unknown.
+     */
+    private JsonNode route(String[] path, boolean post, JsonNode body) throws UnsupportedEncodingException {
+        if (path.length >= 3 && "schemas".equals(path[0]) && "ids".equals(path[1])) {
+            RegisteredSchema schema = schemasById.get(Integer.parseInt(path[2]));
+            if (schema == null) {
+                return null;
+            }
+            if (path.length == 3) {
+                return schema.toJson(false);
+            }
+            if ("versions".equals(path[3]) || "subjects".equals(path[3])) {
+                ArrayNode usages = MAPPER.createArrayNode();
+                for (List<RegisteredSchema> versions : subjects.values()) {
+                    for (RegisteredSchema version : versions) {
+                        if (version.id == schema.id) {
+                            if ("versions".equals(path[3])) {
+                                usages.addObject().put("subject", version.subject).put("version", version.version);
+                            } else {
+                                usages.add(version.subject);
+                            }
+                        }
+                    }
+                }
+                return usages;
+            }
+            return null;
+        }
+        if (path.length >= 1 && "subjects".equals(path[0])) {
+            if (path.length == 1) {
+                ArrayNode names = MAPPER.createArrayNode();
+                subjects.keySet().stream().sorted().forEach(names::add);
+                return names;
+            }
+            String subject = URLDecoder.decode(path[1], StandardCharsets.UTF_8.name());
+            if (path.length == 3 && "versions".equals(path[2]) && post) {
+                int id = register(subject, body.path("schemaType").asText("AVRO"), body.path("schema").asText(),
+                                  ruleSet(body));
+                return MAPPER.createObjectNode().put("id", id);
+            }
+            List<RegisteredSchema> versions = subjects.get(subject);
+            if (versions == null || versions.isEmpty()) {
+                return null;
+            }
+            if (path.length == 2 && post) {
+                String schemaType = body.path("schemaType").asText("AVRO");
+                String schema = body.path("schema").asText();
+                for (RegisteredSchema version : versions) {
+                    if (version.matches(schemaType, schema, ruleSet(body))) {
+                        return version.toJson(true);
+                    }
+                }
+                return null;
+            }
+            if (path.length == 3 && "versions".equals(path[2])) {
+                ArrayNode numbers = MAPPER.createArrayNode();
+                versions.forEach(version -> numbers.add(version.version));
+                return numbers;
+            }
+            if (path.length == 4 && "versions".equals(path[2])) {
+                int version = "latest".equals(path[3]) || "-1".equals(path[3])
+                    ? versions.size() : Integer.parseInt(path[3]);
+                return version >= 1 && version <= versions.size() ? versions.get(version - 1).toJson(true) : null;
+            }
+            return null;
+        }
+        if (path.length >= 1 && "config".equals(path[0])) {
+            return MAPPER.createObjectNode().put("compatibilityLevel", "NONE");
+        }
+        if (path.length >= 1 && "mode".equals(path[0])) {
+            return MAPPER.createObjectNode().put("mode", "READWRITE");
+        }
+        if (path.length == 2 && "schemas".equals(path[0]) && "types".equals(path[1])) {
+            return MAPPER.createArrayNode().add("AVRO").add("JSON").add("PROTOBUF");
+        }
+        if (path.length == 1 && path[0].isEmpty()) {
+            return MAPPER.createObjectNode();
+        }
+        return null;
+    }
+
+    /**
+     * Key encryption keys under /dek-registry/v1/keks/{name} and their data keys under
+     * .../deks/{subject}[/versions/{version}], stored as posted with a timestamp added.
+     */
+    private JsonNode routeDekRegistry(String[] path, boolean post, JsonNode body, String query)
+        throws UnsupportedEncodingException {
+        if (path.length < 3 || !"keks".equals(path[2])) {
+            return null;
+        }
+        if (path.length == 3 && post) {
+            ObjectNode kek = ((ObjectNode) body.deepCopy()).put("ts", System.currentTimeMillis()).put("deleted", false);
+            ObjectNode existing = keks.putIfAbsent(kek.path("name").asText(), kek);
+            return existing != null ? existing : kek;
+        }
+        if (path.length < 4) {
+            return null;
+        }
+        String kekName = URLDecoder.decode(path[3], StandardCharsets.UTF_8.name());
+        if (path.length == 4) {
+            return keks.get(kekName);
+        }
+        if (!"deks".equals(path[4]) || !keks.containsKey(kekName)) {
+            return null;
+        }
+        if (path.length == 5 && post) {
+            ObjectNode dek = MAPPER.createObjectNode()
+                .put("kekName", kekName)
+                .put("subject", body.path("subject").asText())
+                .put("version", body.path("version").asInt(1))
+                .put("algorithm", body.path("algorithm").asText("AES256_GCM"))
+                .put("encryptedKeyMaterial", body.path("encryptedKeyMaterial").asText(null))
+                .put("ts", System.currentTimeMillis())
+                .put("deleted", false);
+            ObjectNode existing = deks.putIfAbsent(dekKey(kekName, dek.path("subject").asText(),
+                                                          dek.path("version").asInt(), dek.path("algorithm").asText()),
+                                                   dek);
+            return existing != null ? existing : dek;
+        }
+        if (path.length < 6) {
+            return null;
+        }
+        String subject = URLDecoder.decode(path[5], StandardCharsets.UTF_8.name());
+        String algorithm = queryParameter(query, "algorithm", "AES256_GCM");
+        int version = -1;
+        if (path.length == 8 && "versions".equals(path[6]) && !"latest".equals(path[7])) {
+            version = Integer.parseInt(path[7]);
+        }
+        if (version > 0) {
+            return deks.get(dekKey(kekName, subject, version, algorithm));
+        }
+        ObjectNode latest = null;
+        for (ObjectNode dek : deks.values()) {
+            if (kekName.equals(dek.path("kekName").asText()) && subject.equals(dek.path("subject").asText())
+                && algorithm.equals(dek.path("algorithm").asText())
+                && (latest == null || dek.path("version").asInt() > latest.path("version").asInt())) {
+                latest = dek;
+            }
+        }
+        return latest;
+    }
+
+    private static String dekKey(String kekName, String subject, int version, String algorithm) {
+        return kekName + "/" + subject + "/" + version + "/" + algorithm;
+    }
+
+    private static String queryParameter(String query, String name, String defaultValue)
+        throws UnsupportedEncodingException {
+        if (query != null) {
+            for (String parameter : query.split("&")) {
+                if (parameter.startsWith(name + "=")) {
+                    return URLDecoder.decode(parameter.substring(name.length() + 1), StandardCharsets.UTF_8.name());
+                }
+            }
+        }
+        return defaultValue;
+    }
+
+    private static JsonNode ruleSet(JsonNode body) {
+        JsonNode ruleSet = body.path("ruleSet");
+        return ruleSet.isMissingNode() || ruleSet.isNull() ? null : ruleSet;
+    }
+
+    private static ObjectNode error(int code, String message) {
+        return MAPPER.createObjectNode().put("error_code", code).put("message", message);
+    }
+
+    private static void respond(HttpExchange exchange, int status, JsonNode body) throws IOException {
+        byte[] content = MAPPER.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+        exchange.sendResponseHeaders(status, content.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(content);
+        }
+    }
+
+    private static final class RegisteredSchema {
+        final String subject;
+        final int version;
+        final int id;
+        final String schemaType;
+        final String schema;
+        final JsonNode ruleSet;
+
+        RegisteredSchema(String subject, int version, int id, String schemaType, String schema, JsonNode ruleSet) {
+            this.subject = subject;
+            this.version = version;
+            this.id = id;
+            this.schemaType = schemaType;
+            this.schema = schema;
+            this.ruleSet = ruleSet;
+        }
+
+        boolean matches(String schemaType, String schema, JsonNode ruleSet) {
+            return this.schemaType.equals(schemaType) && this.schema.equals(schema)
+                && java.util.Objects.equals(this.ruleSet, ruleSet);
+        }
+
+        /**
+         * The schema as returned by id, or with its subject, version and id as returned by subject.
+         */
+        ObjectNode toJson(boolean withSubject) {
+            ObjectNode node = MAPPER.createObjectNode();
+            if (withSubject) {
+                node.put("subject", subject).put("version", version).put("id", id);
+            }
+            node.put("schema", schema);
+            if (!"AVRO".equals(schemaType)) {
+                node.put("schemaType", schemaType);
+            }
+            if (ruleSet != null) {
+                node.set("ruleSet", ruleSet);
+            }
+            return node;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.confluent.kafka.testing;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Latency of each of the first requests after a gateway start, in the order they completed, so the
+ * warm-up curve (JIT compilation, connection and cache setup) can be read off per window of
+ * requests. Recorded from a single thread.
+ */
+final class WarmupCurve {
+
+    private final long[] completedAtMillis;
+    private final long[] latencyNanos;
+    private int requests;
+
+    WarmupCurve(int capacity) {
+        completedAtMillis = new long[capacity];
+        latencyNanos = new long[capacity];
+    }
+
+    /**
+     * Records one request; returns false once the curve is full.
+     */
+    boolean record(long completedAtMillis, long nanos) {
+        if (requests == latencyNanos.length) {
+            return false;
+        }
+        this.completedAtMillis[requests] = completedAtMillis;
+        latencyNanos[requests++] = nanos;
+        return true;
+    }
+
+    int requests() {
+        return requests;
+    }
+
+    long completedAtMillis(int request) {
+        return completedAtMillis[request];
+    }
+
+    /**
+     * Latency of requests [from, to), clamped to what was recorded.
+     */
+    LatencyRecorder range(int from, int to) {
+        LatencyRecorder recorder = new LatencyRecorder();
+        for (int i = Math.max(0, from); i < Math.min(to, requests); i++) {
+            recorder.recordNanos(latencyNanos[i]);
+        }
+        return recorder;
+    }
+
+    /**
+     * The steady state the curve settles into: the last fifth of the requests, and at least one window.
+     */
+    LatencyRecorder steady(int windowSize) {
+        return range(requests - Math.max(windowSize, requests / 5), requests);
+    }
+
+    /**
+     * The first request from which every window of windowSize requests has a p99 within tolerance
+     * (e.g. 1.2) of the steady-state p99, or -1 if nothing was recorded. A curve that never settles
+     * returns the start of its last window.
+     */
+    int stableFrom(int windowSize, double tolerance) {
+        if (requests == 0) {
+            return -1;
+        }
+        double limit = steady(windowSize).percentileMillis(99) * tolerance;
+        int windows = (requests + windowSize - 1) / windowSize;
+        int stable = windows - 1;
+        while (stable > 0 && range((stable - 1) * windowSize, stable * windowSize).percentileMillis(99) <= limit) {
+            stable--;
+        }
+        return stable * windowSize;
+    }
+
+    /**
+     * Writes request, completed_at_ms (relative to startedAtMillis) and latency_ms as CSV.
+     */
+    void writeCsv(File file, long startedAtMillis) throws IOException {
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            writer.write("request,completed_at_ms,latency_ms\n");
+            for (int i = 0; i < requests; i++) {
+                writer.write(i + "," + (completedAtMillis[i] - startedAtMillis) + ","
+                             + String.format(Locale.ROOT, "%.3f", latencyNanos[i] / 1_000_000.0) + "\n");
+            }
+        }
+    }
+}
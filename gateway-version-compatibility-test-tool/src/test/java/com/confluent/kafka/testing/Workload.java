@@ -0,0 +1,256 @@
+package com.confluent.kafka.testing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A traffic profile read from a JSON workload file, so new load shapes need no Java changes.
+ * See src/test/resources/workloads/ for examples and the README for every field. All randomness
+ * (record sizes, keys, payload bytes) derives from the workload's seed, so a file replays the same
+ * traffic on every run.
+ */
+final class Workload {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    final String name;
+    final String source;
+    final String sha256;
+    final long seed;
+    final String bootstrapServers;
+    final String security;
+    final int durationSeconds;
+    final int warmupSeconds;
+    final List<TopicLoad> topics;
+
+    private Workload(String source, String defaultName, byte[] content, JsonNode root) {
+        this.source = source;
+        this.sha256 = sha256(content);
+        this.name = text(root, "name", defaultName);
+        this.seed = root.path("seed").asLong(1L);
+        this.bootstrapServers = text(root, "bootstrap_servers", null);
+        this.security = text(root, "security", null);
+        this.durationSeconds = integer(root, "duration_seconds", 60, 1);
+        this.warmupSeconds = integer(root, "warmup_seconds", 5, 0);
+
+        JsonNode topicNodes = root.path("topics");
+        if (!topicNodes.isArray() || topicNodes.size() == 0) {
+            throw new IllegalArgumentException("'topics' must be a non-empty array");
+        }
+        List<TopicLoad> loads = new ArrayList<>();
+        for (JsonNode topic : topicNodes) {
+            loads.add(new TopicLoad(topic));
+        }
+        this.topics = Collections.unmodifiableList(loads);
+    }
+
+    /**
+     * Loads one workload file, reporting the file and the offending field on invalid input.
+     */
+    static Workload load(File file) throws IOException {
+        byte[] content = Files.readAllBytes(file.toPath());
+        try {
+            return new Workload(file.getPath(), file.getName().replaceFirst("\\.json$", ""), content,
+                                MAPPER.readTree(content));
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid workload " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * A workload built in code, e.g. one variant of a benchmark, in the same format as a file.
+     */
+    static Workload fromJson(JsonNode root) {
+        byte[] content = root.toString().getBytes(java.nio.charset.StandardCharsets.UTF_8);
+        return new Workload("generated", "generated", content, root);
+    }
+
+    static com.fasterxml.jackson.databind.node.ObjectNode newSpec() {
+        return MAPPER.createObjectNode();
+    }
+
+    /**
+     * The workload files at a location: the file itself, or every *.json file in a directory, by name.
+     */
+    static List<File> files(File location) {
+        if (location.isFile()) {
+            return Collections.singletonList(location);
+        }
+        File[] files = location.listFiles((dir, fileName) -> fileName.endsWith(".json"));
+        if (files == null) {
+            return Collections.emptyList();
+        }
+        Arrays.sort(files);
+        return Arrays.asList(files);
+    }
+
+    /**
+     * One topic's share of the workload.
+     */
+    static final class TopicLoad {
+        final String name;
+        final int partitions;
+        final int producers;
+        final int consumers;
+        final int rate;
+        final SizeDistribution recordSize;
+        final KeyGenerator keys;
+        final double entropy;
+        final String acks;
+        final String compression;
+        final int lingerMs;
+        final int batchSize;
+
+        private TopicLoad(JsonNode node) {
+            this.name = text(node, "name", null);
+            if (name == null || name.isEmpty()) {
+                throw new IllegalArgumentException("every topic needs a 'name'");
+            }
+            this.partitions = integer(node, "partitions", 6, 1);
+            this.producers = integer(node, "producers", 1, 0);
+            this.consumers = integer(node, "consumers", 1, 0);
+            this.rate = integer(node, "rate", 0, 0);
+            this.recordSize = new SizeDistribution(node.path("record_size"), name);
+            JsonNode keys = node.path("keys");
+            try {
+                this.keys = KeyGenerator.of(text(keys, "distribution", KeyGenerator.NONE),
+                                            integer(keys, "cardinality", 1000, 1),
+                                            keys.path("exponent").asDouble(0.99),
+                                            integer(keys, "hot_keys", 1, 1),
+                                            keys.path("hot_fraction").asDouble(0.9));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("topic '" + name + "': " + e.getMessage(), e);
+            }
+            this.entropy = node.path("entropy").asDouble(1.0);
+            this.acks = text(node, "acks", "all");
+            this.compression = text(node, "compression", "none");
+            this.lingerMs = integer(node, "linger_ms", 5, 0);
+            this.batchSize = integer(node, "batch_size", 65536, 0);
+        }
+    }
+
+    /**
+     * Record value sizes: {@code fixed} (size), {@code uniform} (min, max), {@code normal}
+     * (mean, stddev, clamped to min/max) or {@code weighted} (sizes with matching weights).
+     */
+    static final class SizeDistribution {
+        final String type;
+        private final int size;
+        private final int min;
+        private final int max;
+        private final double mean;
+        private final double stddev;
+        private final int[] sizes;
+        private final double[] cumulativeWeights;
+
+        private SizeDistribution(JsonNode node, String topic) {
+            this.type = text(node, "distribution", "fixed");
+            this.size = integer(node, "size", 1024, 0);
+            this.min = integer(node, "min", 0, 0);
+            this.max = integer(node, "max", "normal".equals(type) ? Integer.MAX_VALUE : Math.max(min, size), min);
+            this.mean = node.path("mean").asDouble(size);
+            this.stddev = node.path("stddev").asDouble(0);
+            JsonNode sizeNodes = node.path("sizes");
+            JsonNode weightNodes = node.path("weights");
+            this.sizes = new int[sizeNodes.size()];
+            this.cumulativeWeights = new double[sizeNodes.size()];
+            double total = 0;
+            for (int i = 0; i < sizes.length; i++) {
+                sizes[i] = sizeNodes.get(i).asInt();
+                total += weightNodes.has(i) ? weightNodes.get(i).asDouble() : 1.0;
+                cumulativeWeights[i] = total;
+            }
+            switch (type) {
+                case "fixed":
+                case "uniform":
+                case "normal":
+                    break;
+                case "weighted":
+                    if (sizes.length == 0 || total <= 0) {
+                        throw new IllegalArgumentException("topic '" + topic + "': weighted record_size needs 'sizes'");
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("topic '" + topic + "': unknown record_size distribution '"
+                        + type + "' (fixed, uniform, normal, weighted)");
+            }
+        }
+
+        int sample(Random random) {
+            switch (type) {
+                case "uniform":
+                    return min + random.nextInt(max - min + 1);
+                case "normal":
+                    long sampled = Math.round(mean + random.nextGaussian() * stddev);
+                    return (int) Math.max(min, Math.min(max, sampled));
+                case "weighted":
+                    double point = random.nextDouble() * cumulativeWeights[cumulativeWeights.length - 1];
+                    for (int i = 0; i < sizes.length; i++) {
+                        if (point < cumulativeWeights[i]) {
+                            return sizes[i];
+                        }
+                    }
+                    return sizes[sizes.length - 1];
+                default:
+                    return size;
+            }
+        }
+    }
+
+    private static String text(JsonNode node, String field, String defaultValue) {
+        JsonNode value = node.path(field);
+        return value.isMissingNode() || value.isNull() ? defaultValue : value.asText();
+    }
+
+    private static int integer(JsonNode node, String field, int defaultValue, int minimum) {
+        JsonNode value = node.path(field);
+        if (value.isMissingNode() || value.isNull()) {
+            return defaultValue;
+        }
+        if (!value.canConvertToInt() || value.asInt() < minimum) {
+            throw new IllegalArgumentException("'" + field + "' must be an integer >= " + minimum + ", got " + value);
+        }
+        return value.asInt();
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            StringBuilder hex = new StringBuilder();
+            for (byte b : MessageDigest.getInstance("SHA-256").digest(content)) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder summary = new StringBuilder(name).append(" (seed ").append(seed).append(", ")
+            .append(durationSeconds).append("s):");
+        for (Iterator<TopicLoad> it = topics.iterator(); it.hasNext(); ) {
+            TopicLoad topic = it.next();
+            summary.append(' ').append(topic.name).append(" [").append(topic.partitions).append(" partitions, ")
+                .append(topic.producers).append("p/").append(topic.consumers).append("c, ")
+                .append(topic.rate > 0 ? topic.rate + " rec/s" : "unthrottled").append(", ")
+                .append(topic.recordSize.type).append(" sizes, ").append(topic.keys).append(" keys]");
+            if (it.hasNext()) {
+                summary.append(',');
+            }
+        }
+        return summary.toString();
+    }
+}
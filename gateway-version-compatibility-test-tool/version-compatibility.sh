@@ -9,7 +9,7 @@ GATEWAY_METRICS="http://localhost:9190/metrics"
 # instead of via an in-container Docker healthcheck.
 wait_for_gateway() {
     for _ in $(seq 1 30); do
-        curl -sf "$GATEWAY_METRICS" > /dev/null 2>&1 && return 0
+        curl -sf "${1:-$GATEWAY_METRICS}" > /dev/null 2>&1 && return 0
         sleep 2
     done
     return 1
@@ -83,6 +83,28 @@ generate_ssl_certificates() {
     echo "✅ SSL certificates generated successfully in ssl/ directory"
 }
 
+# Client certificate for the mTLS auth-swap route, signed by the CA above. The gateway
+# maps CN=bench_user to the principal whose broker credentials it looks up in Vault.
+generate_client_certificate() {
+    echo "🔒 Generating client certificate for the mTLS auth-swap route..."
+    cd ssl
+
+    keytool -keystore client.keystore.jks -alias bench_user -validity 365 \
+        -genkey -keyalg RSA -keysize 2048 -storepass confluent \
+        -keypass confluent -dname "CN=bench_user,OU=Test,O=Confluent,L=CA,S=CA,C=US"
+    keytool -keystore client.keystore.jks -alias bench_user -certreq -file client-cert-file \
+        -storepass confluent
+    openssl x509 -req -CA ca-cert -CAkey ca-key -in client-cert-file -out client-cert-signed \
+        -days 365 -CAcreateserial -passin pass:confluent
+    keytool -keystore client.keystore.jks -alias CARoot -import -file ca-cert \
+        -storepass confluent -noprompt
+    keytool -keystore client.keystore.jks -alias bench_user -import -file client-cert-signed \
+        -storepass confluent -noprompt
+
+    cd ..
+    echo "✅ Client certificate generated in ssl/client.keystore.jks"
+}
+
 # =============================================================================
 # PYTHON ENVIRONMENT SETUP
 # =============================================================================
@@ -120,6 +142,13 @@ setup_python_env() {
     echo "✅ Python environment ready"
 }
 
+# Image reference and ID of the running gateway, recorded with benchmark results
+gateway_image_id() {
+    local container
+    container=$(docker-compose $1 ps -q gateway 2>/dev/null)
+    [ -n "$container" ] && docker inspect --format '{{.Config.Image}}@{{.Image}}' "$container" 2>/dev/null
+}
+
 version_ge() {  # $1 >= $2 ?
     [ "$(printf '%s\n' "$2" "$1" | sort -V | head -n1)" = "$2" ]
 }
@@ -148,15 +177,12 @@ run_compatibility_test() {
     
     # Set up directories for test results
     mkdir -p "$RESULTS_DIR/${test_id}_junit"
-    mkdir -p "$RESULTS_DIR/${test_id}_html" 
     mkdir -p "$RESULTS_DIR/${test_id}_m2"
     
     JUNIT_RESULTS_DIR="$RESULTS_DIR/${test_id}_junit"
-    HTML_RESULTS_DIR="$RESULTS_DIR/${test_id}_html"
     MAVEN_REPO_DIR="$RESULTS_DIR/${test_id}_m2"
     
     echo "JUnit results will be saved to: $JUNIT_RESULTS_DIR"
-    echo "HTML reports will be saved to: $HTML_RESULTS_DIR"
     # Start environment
     # if kafka_server_version starts after 8.0.0, use KRaft mode: docker-compose-kraft.yml
     if version_ge $server_ver "8.0.0"; then
@@ -212,16 +238,17 @@ run_compatibility_test() {
     
     # Copy Maven project files to container for Maven-based execution
     echo "📦 Copying Maven project files to test container..."
-    docker cp pom.xml kafka-client-test:/tmp/
-    docker cp src/ kafka-client-test:/tmp/
+    CLIENT_CONTAINER=$(docker-compose -f $COMPOSE_FILE ps -q kafka-client-test)
+    docker cp pom.xml $CLIENT_CONTAINER:/tmp/
+    docker cp src/ $CLIENT_CONTAINER:/tmp/
     
     # Check if Maven project was copied successfully
-    if ! docker exec kafka-client-test test -f /tmp/pom.xml; then
+    if ! docker exec $CLIENT_CONTAINER test -f /tmp/pom.xml; then
         echo "❌ Failed to copy Maven project files to container"
         return 1
     fi
     
-    if ! docker exec kafka-client-test test -d /tmp/src; then
+    if ! docker exec $CLIENT_CONTAINER test -d /tmp/src; then
         echo "❌ Failed to copy source files to container"
         return 1
     fi
@@ -240,113 +267,53 @@ run_compatibility_test() {
         echo "🔧 Using Java 8 for Kafka client $client_ver"
     fi
 
-    # Run comprehensive compatibility test suite  
+    # Build the self-contained suite jar once, then run every security mode (route)
+    # in one JVM through the in-process JUnit Platform launcher
     echo "=== Running Comprehensive Kafka Test Suite ==="
-    
-    # Test 1: PLAINTEXT authentication
-    echo "🔓 Testing PLAINTEXT authentication (gateway:19092)..."
-    docker exec kafka-client-test bash -c "
+    echo "📦 Building test suite jar..."
+    docker exec $CLIENT_CONTAINER bash -c "
         ${java_settings}cd /tmp && 
-        mvn test \
-            -DclientVersion=$client_ver \
-            -DserverVersion=$server_ver \
+        mvn package \
+            -Psuite-jar \
             -Dkafka.version=$client_ver \
-            -Dbootstrap.servers=gateway:19092 \
-            -Dmaven.test.failure.ignore=false \
-            -Dmaven.surefire.reports.directory=/junit-results/plaintext \
-            -Dsurefire.failIfNoSpecifiedTests=false \
-            $maven_java_args \
-            -q
-    "
-    PLAINTEXT_EXIT_CODE=$?
-    
-    # Test 2: SASL_PLAINTEXT authentication with admin user
-    echo "🔐 Testing SASL_PLAINTEXT authentication with admin user (gateway:19095)..."
-    docker exec kafka-client-test bash -c "
-        ${java_settings}cd /tmp && 
-        KAFKA_SASL_ENABLED=true \
-        KAFKA_SASL_USERNAME=admin \
-        KAFKA_SASL_PASSWORD=admin-secret \
-        mvn test \
-            -DclientVersion=$client_ver \
-            -DserverVersion=$server_ver \
-            -Dkafka.version=$client_ver \
-            -Dbootstrap.servers=gateway:19095 \
-            -Dmaven.test.failure.ignore=false \
-            -Dmaven.surefire.reports.directory=/junit-results/sasl-admin \
-            -Dsurefire.failIfNoSpecifiedTests=false \
             $maven_java_args \
             -q
     "
-    SASL_ADMIN_EXIT_CODE=$?
+    BUILD_EXIT_CODE=$?
     
-    # Test 3: SSL authentication (no SASL)
-    echo "🔒 Testing SSL authentication (gateway:19098)..."
-    docker exec kafka-client-test bash -c "
-        ${java_settings}cd /tmp && 
-        KAFKA_SSL_ENABLED=true \
-        mvn test \
-            -DclientVersion=$client_ver \
-            -DserverVersion=$server_ver \
-            -Dkafka.version=$client_ver \
-            -Dbootstrap.servers=gateway:19098 \
-            -Dmaven.test.failure.ignore=false \
-            -Dmaven.surefire.reports.directory=/junit-results/ssl \
-            -Dsurefire.failIfNoSpecifiedTests=false \
-            $maven_java_args \
-            -q
-    "
-    SSL_EXIT_CODE=$?
-    
-    # Overall test result evaluation
     OVERALL_EXIT_CODE=0
-    if [ $PLAINTEXT_EXIT_CODE -ne 0 ]; then
-        OVERALL_EXIT_CODE=1
-        echo "❌ PLAINTEXT authentication tests failed"
-    else
-        echo "✅ PLAINTEXT authentication tests passed"
-    fi
-    
-    if [ $SASL_ADMIN_EXIT_CODE -ne 0 ]; then
-        OVERALL_EXIT_CODE=1
-        echo "❌ SASL authentication tests failed"
-    else
-        echo "✅ SASL authentication tests passed"
-    fi
-    
-    if [ $SSL_EXIT_CODE -ne 0 ]; then
+    if [ $BUILD_EXIT_CODE -ne 0 ]; then
         OVERALL_EXIT_CODE=1
-        echo "❌ SSL authentication tests failed"
+        echo "❌ Test suite jar build failed"
     else
-        echo "✅ SSL authentication tests passed"
+        echo "🔓 PLAINTEXT (gateway:19092), 🔐 SASL_PLAINTEXT as admin (gateway:19095), 🔒 SSL (gateway:19098)..."
+        docker exec $CLIENT_CONTAINER bash -c "
+            ${java_settings}cd /tmp && 
+            KAFKA_SASL_USERNAME=admin \
+            KAFKA_SASL_PASSWORD=admin-secret \
+            java \
+                -DclientVersion=$client_ver \
+                -DserverVersion=$server_ver \
+                -jar target/advanced-kafka-test-suite-${client_ver}.jar \
+                --reports-dir /junit-results \
+                plaintext=gateway:19092 \
+                sasl=gateway:19095 \
+                ssl=gateway:19098
+        "
+        if [ $? -ne 0 ]; then
+            OVERALL_EXIT_CODE=1
+            echo "❌ Authentication mode tests failed (see per-mode summary above)"
+        else
+            echo "✅ PLAINTEXT, SASL and SSL authentication tests passed"
+        fi
     fi
     
     JUNIT_EXIT_CODE=$OVERALL_EXIT_CODE
     
-    # Check JUnit test results
+    # Check JUnit test results. The per-mode JUnit XML reports are the record; no HTML report is
+    # rendered per cell, since that meant a second Maven bootstrap in every cell.
     if [ $JUNIT_EXIT_CODE -eq 0 ]; then
         echo "✅ JUnit tests passed for client $client_ver with server $server_ver"
-        
-        # Generate HTML reports from all authentication test results
-        docker exec kafka-client-test bash -c "
-            ${java_settings}cd /tmp && 
-            # Copy JUnit XML reports from all authentication modes to Surefire location
-            mkdir -p target/surefire-reports && \
-            cp /junit-results/plaintext/*.xml target/surefire-reports/ 2>/dev/null && \
-            cp /junit-results/sasl-admin/*.xml target/surefire-reports/ 2>/dev/null && \
-            cp /junit-results/ssl/*.xml target/surefire-reports/ 2>/dev/null && \
-            mvn surefire-report:report-only \
-                -Dkafka.version=$client_ver \
-                $maven_java_args \
-                -q && \
-            if [ -f target/site/surefire-report.html ]; then \
-                mkdir -p /html-results && \
-                cp -r target/site/* /html-results/; \
-                echo '📊 HTML report generated successfully with PLAINTEXT, SASL, and SSL authentication test details'; \
-            else \
-                echo '⚠️ HTML report not found'; \
-            fi
-        " 2>/dev/null || echo "⚠️ HTML report generation failed (non-critical)"
     else
         echo "❌ JUnit tests failed for client $client_ver with server $server_ver"
         echo "   Check JUnit XML reports at: $JUNIT_RESULTS_DIR"
@@ -361,13 +328,9 @@ run_compatibility_test() {
     
     # Copy JUnit results from container to host
     echo "📋 Copying JUnit test results from container..."
-    docker cp kafka-client-test:/junit-results/plaintext/ "$JUNIT_RESULTS_DIR/" 2>/dev/null || echo "⚠️ Could not copy PLAINTEXT JUnit results"
-    docker cp kafka-client-test:/junit-results/sasl-admin/ "$JUNIT_RESULTS_DIR/" 2>/dev/null || echo "⚠️ Could not copy SASL JUnit results"
-    docker cp kafka-client-test:/junit-results/ssl/ "$JUNIT_RESULTS_DIR/" 2>/dev/null || echo "⚠️ Could not copy SSL JUnit results"
-    
-    # Copy HTML results from container to host
-    echo "📊 Copying HTML test results from container..."
-    docker cp kafka-client-test:/html-results/ "$HTML_RESULTS_DIR/" 2>/dev/null || echo "⚠️ Could not copy HTML results"
+    docker cp $CLIENT_CONTAINER:/junit-results/plaintext/ "$JUNIT_RESULTS_DIR/" 2>/dev/null || echo "⚠️ Could not copy PLAINTEXT JUnit results"
+    docker cp $CLIENT_CONTAINER:/junit-results/sasl/ "$JUNIT_RESULTS_DIR/" 2>/dev/null || echo "⚠️ Could not copy SASL JUnit results"
+    docker cp $CLIENT_CONTAINER:/junit-results/ssl/ "$JUNIT_RESULTS_DIR/" 2>/dev/null || echo "⚠️ Could not copy SSL JUnit results"
     
     # Scrape metrics
     sleep 5
@@ -379,6 +342,633 @@ run_compatibility_test() {
     echo "Completed: $test_id"
 }
 
+# Copy benchmark JSON results out of the client container, add them to the local
+# result store and fail if any metric regressed against the stored baseline.
+store_benchmark_results() {
+    local destination=$1
+    mkdir -p "$destination"
+    docker cp $CLIENT_CONTAINER:/tmp/target/benchmark-results/. "$destination/" 2>/dev/null || {
+        echo "⚠️ No benchmark results found in the test container"
+        return 0
+    }
+    python3 benchmark_store.py --db "${BENCHMARK_DB:-benchmark-results.db}" check "$destination"
+}
+
+# With GATEWAY_JFR_ENABLED=true the gateway records JFR continuously (see the image's run
+# script). Stop it so the JVM writes the recording, copy it out, and summarise the benchmark
+# window ($3 to $4, epoch ms) with JfrSummary: hot methods, allocation rate and GC pauses.
+# JfrSummary runs on the gateway image's own JRE so the parser matches the recording.
+collect_gateway_jfr() {
+    local compose_args=$1
+    local label=$2
+    local from_ms=$3
+    local to_ms=$4
+    local jfr_dir="$RESULTS_DIR/jfr"
+    local gateway_container gateway_image
+
+    [ "${GATEWAY_JFR_ENABLED:-false}" = "true" ] || return 0
+    gateway_container=$(docker-compose $compose_args ps -q gateway)
+    gateway_image=$(docker inspect -f '{{.Config.Image}}' "$gateway_container")
+    mkdir -p "$jfr_dir/classes"
+
+    echo "🛩️ Collecting the gateway JFR recording..."
+    docker-compose $compose_args stop gateway
+    if ! docker cp "$gateway_container:/tmp/gateway/jfr/gateway.jfr" "$jfr_dir/${label}.jfr"; then
+        echo "⚠️ No JFR recording in the gateway container"
+        return 0
+    fi
+    docker cp "$CLIENT_CONTAINER:/tmp/target/test-classes/com" "$jfr_dir/classes/" 2>/dev/null
+    docker run --rm --entrypoint java -v "$(cd "$jfr_dir" && pwd):/jfr:ro" "$gateway_image" \
+        -cp /jfr/classes com.confluent.kafka.testing.JfrSummary "/jfr/${label}.jfr" "$from_ms" "$to_ms" \
+        > "$jfr_dir/${label}_summary.txt" 2>&1 || echo "⚠️ Could not summarise $jfr_dir/${label}.jfr"
+    cat "$jfr_dir/${label}_summary.txt"
+}
+
+# Shared set-up for the benchmark modes: exports the client and server versions, creates the
+# SSL certificates the stacks mount, and picks the base compose file for the server version
+# (COMPOSE_FILE, KRaft from 8.0.0) and the compiler level for the client (maven_java_args).
+prepare_benchmark_run() {
+    local client_ver=$1
+    local server_ver=$2
+
+    if [ ! -d "ssl" ] || [ ! -f "ssl/kafka.keystore.jks" ]; then
+        generate_ssl_certificates
+    fi
+    export KAFKA_CLIENT_VERSION="$client_ver"
+    export KAFKA_SERVER_VERSION="$server_ver"
+    if version_ge $server_ver "8.0.0"; then
+        COMPOSE_FILE="docker-compose-kraft.yml"
+    else
+        COMPOSE_FILE="docker-compose.yml"
+    fi
+    if [[ "$client_ver" == "8.0.0" ]]; then
+        maven_java_args="-Dmaven.compiler.source=11 -Dmaven.compiler.target=11"
+    else
+        maven_java_args="-Dmaven.compiler.source=8 -Dmaven.compiler.target=8"
+    fi
+}
+
+# Start the stack given by the docker-compose arguments in $1 (e.g. "-f docker-compose.yml"),
+# wait for the gateway and copy the Maven project into the client container (CLIENT_CONTAINER).
+# Tears the stack down again if it does not come up.
+start_benchmark_stack() {
+    BENCHMARK_COMPOSE_ARGS=$1
+    if ! docker-compose $BENCHMARK_COMPOSE_ARGS up -d; then
+        echo "❌ Failed to start services"
+        docker-compose $BENCHMARK_COMPOSE_ARGS down
+        return 1
+    fi
+    if ! wait_for_gateway; then
+        echo "❌ Gateway not responding. Exiting test."
+        docker-compose $BENCHMARK_COMPOSE_ARGS logs --no-color --tail=50
+        docker-compose $BENCHMARK_COMPOSE_ARGS down
+        return 1
+    fi
+
+    CLIENT_CONTAINER=$(docker-compose $BENCHMARK_COMPOSE_ARGS ps -q kafka-client-test)
+    docker cp pom.xml $CLIENT_CONTAINER:/tmp/
+    docker cp src/ $CLIENT_CONTAINER:/tmp/
+}
+
+# Copy JSON workload files (a file or a directory of *.json) to /tmp/workload-run in the
+# client container.
+copy_workload_files() {
+    local workload_path=$1
+    docker exec $CLIENT_CONTAINER mkdir -p /tmp/workload-run
+    if [ -d "$workload_path" ]; then
+        docker cp "$workload_path/." $CLIENT_CONTAINER:/tmp/workload-run/
+    else
+        docker cp "$workload_path" $CLIENT_CONTAINER:/tmp/workload-run/
+    fi
+}
+
+# Run one AdvancedKafkaTest method ($1, e.g. testWorkloadFiles) with mvn test in the client
+# container of the stack started by start_benchmark_stack, against the plaintext route.
+# Any further arguments are extra -D properties. Output goes to stdout.
+run_benchmark_mvn() {
+    local test_method=$1
+    shift
+    docker exec $CLIENT_CONTAINER bash -c "
+        cd /tmp &&
+        mvn test \
+            -Dtest='AdvancedKafkaTest#$test_method' \
+            -Dtest.excludedGroups=none \
+            -DclientVersion=$KAFKA_CLIENT_VERSION \
+            -DserverVersion=$KAFKA_SERVER_VERSION \
+            -Dgateway.image=$(gateway_image_id "$BENCHMARK_COMPOSE_ARGS") \
+            -Dkafka.version=$KAFKA_CLIENT_VERSION \
+            -Dbootstrap.servers=gateway:19092 \
+            $* \
+            -Dsurefire.failIfNoSpecifiedTests=false \
+            $maven_java_args
+    "
+}
+
+# Restart the gateway container under continuous client load and record how long
+# clients take to recover. The restart time is written into the client container
+# so the test can measure from the moment the gateway actually went down.
+run_restart_recovery_test() {
+    local client_ver=$1
+    local server_ver=$2
+    local restart_delay=${RESTART_DELAY_SECONDS:-15}
+    local test_id="java${client_ver}_server${server_ver}_restart"
+
+    echo "Restart recovery: Java Client ${client_ver} with Kafka Server ${server_ver}"
+    echo "----------------------------------------"
+
+    prepare_benchmark_run $client_ver $server_ver
+    start_benchmark_stack "-f $COMPOSE_FILE" || return 1
+
+    echo "🔄 Starting continuous produce/consume load (gateway:19092)..."
+    run_benchmark_mvn testGatewayRestartRecovery \
+        -Dbenchmark.restart.marker=/tmp/gateway-restart-at \
+        > "$RESULTS_DIR/${test_id}.log" 2>&1 &
+    local test_pid=$!
+
+    # Maven compiles before the load starts, so wait for the test to log that it is running
+    for _ in $(seq 1 120); do
+        grep -q "Running Gateway Restart Recovery Benchmark" "$RESULTS_DIR/${test_id}.log" && break
+        sleep 1
+    done
+    sleep "$restart_delay"
+
+    echo "🔁 Restarting gateway container..."
+    docker exec $CLIENT_CONTAINER bash -c "echo \$(( \$(date +%s%N) / 1000000 )) > /tmp/gateway-restart-at"
+    docker-compose -f $COMPOSE_FILE restart gateway
+    wait_for_gateway || echo "⚠️ Gateway metrics endpoint did not come back"
+
+    wait $test_pid
+    local rc=$?
+    grep -A6 "Gateway restart recovery results" "$RESULTS_DIR/${test_id}.log"
+    store_benchmark_results "$RESULTS_DIR/benchmark-results" || rc=1
+
+    docker-compose -f $COMPOSE_FILE down
+    return $rc
+}
+
+# Stop the gateway container and start it again while testGatewayStartup waits, then hand the
+# container's start time to the test, which measures time to /livez, to the first Metadata
+# response and to a stable p99 from there. STARTUP_RUNS (default 1) repeats the cycle.
+run_startup_test() {
+    local client_ver=$1
+    local server_ver=$2
+    local runs=${STARTUP_RUNS:-1}
+    local test_id="java${client_ver}_server${server_ver}_startup"
+    local startup_rc=0
+    local run
+
+    echo "Gateway startup: Java Client ${client_ver} with Kafka Server ${server_ver}"
+    echo "----------------------------------------"
+
+    prepare_benchmark_run $client_ver $server_ver
+    start_benchmark_stack "-f $COMPOSE_FILE" || return 1
+
+    for run in $(seq 1 "$runs"); do
+        local log_file="$RESULTS_DIR/${test_id}_${run}.log"
+        echo "🚀 Startup run $run of $runs..."
+        run_benchmark_mvn testGatewayStartup \
+            -Dbenchmark.startup.marker=/tmp/gateway-started-at \
+            > "$log_file" 2>&1 &
+        local test_pid=$!
+
+        # Maven compiles and the test creates its topic first, so wait until it is waiting for the start
+        for _ in $(seq 1 180); do
+            grep -q "Waiting for the gateway to start" "$log_file" && break
+            sleep 1
+        done
+
+        echo "🔁 Stopping and starting the gateway container..."
+        docker-compose -f $COMPOSE_FILE stop gateway
+        docker-compose -f $COMPOSE_FILE start gateway
+        local started_at
+        started_at=$(docker inspect -f '{{.State.StartedAt}}' "$(docker-compose -f $COMPOSE_FILE ps -q gateway)")
+        docker exec $CLIENT_CONTAINER bash -c "echo $(date -d "$started_at" +%s%3N) > /tmp/gateway-started-at"
+
+        wait $test_pid || startup_rc=1
+        grep -A4 "Gateway startup results" "$log_file"
+        grep -o "Startup result: .*" "$log_file"
+        store_benchmark_results "$RESULTS_DIR/benchmark-results" || startup_rc=1
+    done
+    echo "📈 Per-request warm-up curves: $RESULTS_DIR/benchmark-results/startup-warmup-*.csv"
+
+    docker-compose -f $COMPOSE_FILE down
+    return $startup_rc
+}
+
+# Run JSON workload files (a file or a directory of *.json) through the gateway and
+# store their benchmark results. The files are copied into the client container.
+run_workload_test() {
+    local client_ver=$1
+    local server_ver=$2
+    local workload_path=$3
+    local test_id="java${client_ver}_server${server_ver}_workload"
+
+    if [ ! -e "$workload_path" ]; then
+        echo "❌ Workload file or directory not found: $workload_path"
+        return 1
+    fi
+    echo "Workload: $workload_path with Java Client ${client_ver} and Kafka Server ${server_ver}"
+    echo "----------------------------------------"
+
+    prepare_benchmark_run $client_ver $server_ver
+    start_benchmark_stack "-f $COMPOSE_FILE" || return 1
+    copy_workload_files "$workload_path"
+
+    echo "📜 Running workloads through the gateway..."
+    local from_ms=$(date +%s%3N)
+    run_benchmark_mvn testWorkloadFiles \
+        -Dbenchmark.workload=/tmp/workload-run \
+        > "$RESULTS_DIR/${test_id}.log" 2>&1
+    local rc=$?
+    grep -A8 "Workload .* results:" "$RESULTS_DIR/${test_id}.log"
+    store_benchmark_results "$RESULTS_DIR/benchmark-results" || rc=1
+    collect_gateway_jfr "-f $COMPOSE_FILE" "$test_id" "$from_ms" "$(date +%s%3N)"
+
+    docker-compose -f $COMPOSE_FILE down
+    return $rc
+}
+
+# Run the same workload files ($3, default src/test/resources/workloads) twice on one
+# host, once with the gateway on epoll and once on io_uring, and compare throughput,
+# produce p99 and gateway CPU. Both runs use docker-compose-io-uring.yml so they share
+# the same seccomp profile; -Dbenchmark.gateway.transport keeps their stored results apart.
+run_io_uring_test() {
+    local client_ver=$1
+    local server_ver=$2
+    local workload_path=${3:-src/test/resources/workloads}
+    local summary="$RESULTS_DIR/io_uring.txt"
+    local io_uring_rc=0
+    local transport
+
+    if [ ! -e "$workload_path" ]; then
+        echo "❌ Workload file or directory not found: $workload_path"
+        return 1
+    fi
+    prepare_benchmark_run $client_ver $server_ver
+    echo "Kernel: $(uname -sr)"
+
+    printf "%-10s %-20s %-14s %-12s %s\n" "Transport" "Workload" "Produce MB/s" "p99 (ms)" "Gateway cores" > "$summary"
+    for transport in epoll io_uring; do
+        local compose_args="-f $COMPOSE_FILE -f docker-compose-io-uring.yml"
+        local log_file="$RESULTS_DIR/io_uring_${transport}.log"
+        echo "⚙️ Workload: $workload_path with the gateway on $transport"
+        if [ "$transport" = "io_uring" ]; then
+            export GATEWAY_USE_IO_URING=true
+        else
+            export GATEWAY_USE_IO_URING=false
+        fi
+
+        if ! start_benchmark_stack "$compose_args"; then
+            echo "❌ Failed to start the $transport environment"
+            return 1
+        fi
+
+        local from_ms=$(date +%s%3N)
+        copy_workload_files "$workload_path"
+        run_benchmark_mvn testWorkloadFiles \
+            -Dbenchmark.workload=/tmp/workload-run \
+            -Dbenchmark.gateway.transport=$transport \
+            > "$log_file" 2>&1 || { echo "⚠️ $transport run failed, see $log_file"; io_uring_rc=1; }
+        store_benchmark_results "$RESULTS_DIR/benchmark-results" || io_uring_rc=1
+
+        # The gateway falls back to epoll when io_uring is unavailable; make that visible
+        docker-compose $compose_args logs gateway > "$RESULTS_DIR/io_uring_${transport}_gateway.log" 2>&1
+        if [ "$transport" = "io_uring" ]; then
+            if grep -qiE "io_?uring" "$RESULTS_DIR/io_uring_${transport}_gateway.log"; then
+                grep -iE "io_?uring" "$RESULTS_DIR/io_uring_${transport}_gateway.log" | head -5
+            else
+                echo "⚠️ No io_uring mention in the gateway log; check it actually left epoll"
+            fi
+        fi
+        collect_gateway_jfr "$compose_args" "io_uring_${transport}" "$from_ms" "$(date +%s%3N)"
+        docker-compose $compose_args down
+
+        grep -o "Workload result: .*" "$log_file" | while read -r _ _ name produce p99 cores; do
+            printf "%-10s %-20s %-14s %-12s %s\n" "$transport" "${name#name=}" \
+                "$(echo "${produce#produce=}" | sed 's/MB\/s$//')" "$(echo "${p99#p99=}" | sed 's/ms$//')" \
+                "${cores#cores=}" >> "$summary"
+        done
+    done
+    unset GATEWAY_USE_IO_URING
+
+    echo ""
+    echo "📊 EPOLL VS IO_URING SUMMARY ($(uname -sr)):"
+    cat "$summary"
+    return $io_uring_rc
+}
+
+# Run an AdvancedKafkaTest benchmark ($3, e.g. testAuthSwap) on the dedicated
+# auth-swap stack (Vault plus one KRaft broker), whatever the server version.
+# $4 names the run in log and result file names.
+run_auth_stack_test() {
+    local client_ver=$1
+    local server_ver=$2
+    local test_method=$3
+    local test_id="java${client_ver}_server${server_ver}_$4"
+    local compose_file="docker-compose-authswap-kraft.yml"
+
+    echo "$test_method: Java Client ${client_ver} with Kafka Server ${server_ver}"
+    echo "----------------------------------------"
+
+    prepare_benchmark_run $client_ver $server_ver
+    if [ ! -f "ssl/client.keystore.jks" ]; then
+        generate_client_certificate
+    fi
+    start_benchmark_stack "-f $compose_file" || return 1
+
+    echo "🔑 Running $test_method on the auth-swap routes..."
+    local from_ms=$(date +%s%3N)
+    run_benchmark_mvn $test_method > "$RESULTS_DIR/${test_id}.log" 2>&1
+    local rc=$?
+    grep -E "(passthrough|scram|mtls|reauth): (connection setup|[0-9]+ re-auth)|gateway CPU .* cores|past baseline" \
+        "$RESULTS_DIR/${test_id}.log"
+    store_benchmark_results "$RESULTS_DIR/benchmark-results" || rc=1
+    collect_gateway_jfr "-f $compose_file" "$test_id" "$from_ms" "$(date +%s%3N)"
+
+    docker-compose -f $compose_file down
+    return $rc
+}
+
+# Run testClientFleet with the client container rebuilt on JDK 21 (CLIENT_JDK, override with
+# FLEET_CLIENT_JDK) so every simulated client gets its own virtual thread. On JDK 11 the test
+# drives the same fleet from a few pooled threads instead.
+run_client_fleet_test() {
+    local client_ver=$1
+    local server_ver=$2
+    local test_id="java${client_ver}_server${server_ver}_client_fleet"
+
+    echo "testClientFleet: Java Client ${client_ver} with Kafka Server ${server_ver}"
+    echo "----------------------------------------"
+
+    prepare_benchmark_run $client_ver $server_ver
+    export CLIENT_JDK=${FLEET_CLIENT_JDK:-21}
+    # The image name does not depend on the JDK, so rebuild it rather than reuse a JDK 11 image
+    docker-compose -f $COMPOSE_FILE build kafka-client-test || return 1
+    start_benchmark_stack "-f $COMPOSE_FILE" || return 1
+
+    echo "🛰️ Running testClientFleet on JDK ${CLIENT_JDK}..."
+    run_benchmark_mvn testClientFleet > "$RESULTS_DIR/${test_id}.log" 2>&1
+    local rc=$?
+    grep -E "producers \(one record|clients connected|Gateway heap|Gateway threads|Client failures|past baseline" \
+        "$RESULTS_DIR/${test_id}.log"
+    store_benchmark_results "$RESULTS_DIR/benchmark-results" || rc=1
+
+    docker-compose -f $COMPOSE_FILE down
+    return $rc
+}
+
+# Run a Schema Registry benchmark ($3, e.g. testSchemaValidation) with
+# docker-compose-schema-validation.yml over the base stack for the server version. The
+# override maps the sv-* topics to their validation levels; the test serves the Schema
+# Registry stub from the client container. $4 names the run in log and result file names.
+# GATEWAY_ENCRYPTION_SECRET, the local KMS secret of the encryption rule executors, is
+# generated for the run unless already set.
+run_schema_registry_test() {
+    local client_ver=$1
+    local server_ver=$2
+    local test_method=$3
+    local test_id="java${client_ver}_server${server_ver}_$4"
+
+    echo "$test_method: Java Client ${client_ver} with Kafka Server ${server_ver}"
+    echo "----------------------------------------"
+
+    prepare_benchmark_run $client_ver $server_ver
+    export GATEWAY_ENCRYPTION_SECRET=${GATEWAY_ENCRYPTION_SECRET:-$(openssl rand -base64 32)}
+    local compose_args="-f $COMPOSE_FILE -f docker-compose-schema-validation.yml"
+    start_benchmark_stack "$compose_args" || return 1
+
+    echo "🧾 Running $test_method with per-topic schema validation..."
+    local from_ms=$(date +%s%3N)
+    run_benchmark_mvn $test_method > "$RESULTS_DIR/${test_id}.log" 2>&1
+    local rc=$?
+    grep -E "records/s|registry calls|Unknown schema ids were accepted|not confirmed encrypted|past baseline" \
+        "$RESULTS_DIR/${test_id}.log"
+    store_benchmark_results "$RESULTS_DIR/benchmark-results" || rc=1
+    collect_gateway_jfr "$compose_args" "$test_id" "$from_ms" "$(date +%s%3N)"
+
+    docker-compose $compose_args down
+    return $rc
+}
+
+# Write the broker list for a KRaft stack of $1 combined broker/controller nodes to $2 and
+# set SCALING_COMPOSE_ARGS to the compose files that make up the stack: docker-compose-kraft.yml,
+# the gateway override (docker-compose-scaling.yml, or docker-compose-identification.yml with $3
+# set to "tls") and the generated file. kafka-server stays node 1; kafka-2..N extend it from
+# docker-compose-kraft.yml with their own node ID and listener host names and no host ports
+# (ports: !reset needs Compose v2.24 or later). SCALING_BROKERS sizes the gateway's nodeIdRanges,
+# and the gateway publishes one more port per node for its port-based route.
+generate_scaling_compose() {
+    local brokers=$1
+    local output=$2
+    local identification=$3
+    local base="$(pwd)/docker-compose-kraft.yml"
+    local gateway_override="docker-compose-scaling.yml"
+    local listeners advertised voters="" node
+
+    listeners=$(sed -n 's/^ *KAFKA_LISTENERS: //p' "$base")
+    advertised=$(sed -n 's/^ *KAFKA_ADVERTISED_LISTENERS: //p' "$base")
+    for node in $(seq 1 "$brokers"); do
+        voters="${voters:+$voters,}${node}@$(scaling_broker_host $node):9093"
+    done
+
+    {
+        echo "# Generated by version-compatibility.sh for $brokers broker(s); see generate_scaling_compose"
+        echo "services:"
+        echo "  kafka-server:"
+        echo "    environment:"
+        echo "      KAFKA_CONTROLLER_QUORUM_VOTERS: '$voters'"
+        for node in $(seq 2 "$brokers"); do
+            cat <<YAML
+  kafka-${node}:
+    extends:
+      file: ${base}
+      service: kafka-server
+    ports: !reset []
+    environment:
+      KAFKA_BROKER_ID: ${node}
+      KAFKA_NODE_ID: ${node}
+      KAFKA_CONTROLLER_QUORUM_VOTERS: '${voters}'
+      KAFKA_LISTENERS: ${listeners//kafka-server/kafka-$node}
+      KAFKA_ADVERTISED_LISTENERS: ${advertised//kafka-server/kafka-$node}
+YAML
+        done
+        if [ "$brokers" -ge 2 ] || [ "$identification" = "tls" ]; then
+            echo "  gateway:"
+        fi
+        if [ "$brokers" -ge 2 ]; then
+            echo "    depends_on:"
+            for node in $(seq 2 "$brokers"); do
+                printf '      kafka-%s:\n        condition: service_healthy\n' "$node"
+            done
+        fi
+        # docker-compose-kraft.yml publishes 19092-19094; add the rest of the port route's range
+        if [ "$brokers" -ge 3 ]; then
+            echo "    ports:"
+            echo "      - \"19095-$((19093 + brokers)):19095-$((19093 + brokers))\""
+        elif [ "$brokers" -eq 2 ]; then
+            echo "    ports:"
+            echo "      - \"19095:19095\""
+        fi
+        if [ "$identification" = "tls" ]; then
+            echo "    networks:"
+            echo "      default:"
+            echo "        aliases:"
+            echo "          - gateway.local"
+            for node in $(seq 1 "$brokers"); do
+                echo "          - broker${node}.gateway.local"
+            done
+        fi
+    } > "$output"
+
+    if [ "$identification" = "tls" ]; then
+        gateway_override="docker-compose-identification.yml"
+    fi
+    export SCALING_BROKERS=$brokers
+    SCALING_COMPOSE_ARGS="-f docker-compose-kraft.yml -f $gateway_override -f $output"
+}
+
+# Host name of node $1 in a generate_scaling_compose stack.
+scaling_broker_host() {
+    if [ "$1" -eq 1 ]; then
+        echo "kafka-server"
+    else
+        echo "kafka-$1"
+    fi
+}
+
+# Run the broker-scaling throughput scenario against 1, 3 and 5 brokers (override
+# with SCALING_BROKER_COUNTS) behind one gateway and summarise how throughput scales.
+run_broker_scaling_test() {
+    local client_ver=$1
+    local server_ver=$2
+    local counts=(${SCALING_BROKER_COUNTS:-1 3 5})
+    local summary="$RESULTS_DIR/broker_scaling.txt"
+    local base_produce=""
+    local scaling_rc=0
+    local brokers
+
+    if ! version_ge $server_ver "8.0.0"; then
+        echo "❌ Broker scaling uses KRaft compose files and needs server version 8.0.0 or later"
+        return 1
+    fi
+
+    prepare_benchmark_run $client_ver $server_ver
+
+    printf "%-8s %-16s %-16s %s\n" "Brokers" "Produce MB/s" "Consume MB/s" "Produce scaling" > "$summary"
+    for brokers in "${counts[@]}"; do
+        local compose_file="$RESULTS_DIR/docker-compose-scaling-${brokers}.yml"
+        local log_file="$RESULTS_DIR/broker_scaling_${brokers}.log"
+        echo "📈 Broker scaling: $brokers broker(s) behind one gateway"
+        generate_scaling_compose "$brokers" "$compose_file"
+
+        if ! start_benchmark_stack "$SCALING_COMPOSE_ARGS"; then
+            echo "❌ Failed to start $brokers-broker environment"
+            return 1
+        fi
+        run_benchmark_mvn testBrokerScalingThroughput > "$log_file" 2>&1 \
+            || { echo "⚠️ Scaling run with $brokers broker(s) failed, see $log_file"; scaling_rc=1; }
+        curl -s "$GATEWAY_METRICS" > "$RESULTS_DIR/broker_scaling_${brokers}_metrics.txt"
+        store_benchmark_results "$RESULTS_DIR/benchmark-results" || scaling_rc=1
+        docker-compose $SCALING_COMPOSE_ARGS down
+
+        local result produce consume scaling="n/a"
+        result=$(grep -o "Scaling result: .*" "$log_file" | tail -1)
+        produce=$(echo "$result" | sed -n 's/.*produce=\([0-9.]*\)MB\/s.*/\1/p')
+        consume=$(echo "$result" | sed -n 's/.*consume=\([0-9.]*\)MB\/s.*/\1/p')
+        if [ -n "$produce" ]; then
+            base_produce=${base_produce:-$produce}
+            scaling=$(awk -v p="$produce" -v b="$base_produce" 'BEGIN { printf "%.2fx", (b > 0 ? p / b : 0) }')
+        fi
+        printf "%-8s %-16s %-16s %s\n" "$brokers" "${produce:-n/a}" "${consume:-n/a}" "$scaling" >> "$summary"
+    done
+
+    echo ""
+    echo "📊 BROKER SCALING SUMMARY:"
+    cat "$summary"
+    return $scaling_rc
+}
+
+# Run the leader-movement scenario on a generated multi-broker KRaft stack (see
+# generate_scaling_compose); LEADER_MOVEMENT_BROKERS (default 3) sets the broker count.
+# The single-broker compose files cannot move leadership, so the test skips on them.
+run_leader_movement_test() {
+    local client_ver=$1
+    local server_ver=$2
+    local brokers=${LEADER_MOVEMENT_BROKERS:-3}
+    local compose_file="$RESULTS_DIR/docker-compose-leader-movement-${brokers}.yml"
+    local log_file="$RESULTS_DIR/leader_movement_${brokers}.log"
+
+    if ! version_ge $server_ver "8.0.0"; then
+        echo "❌ Leader movement uses KRaft compose files and needs server version 8.0.0 or later"
+        return 1
+    fi
+    if [ "$brokers" -lt 2 ]; then
+        echo "❌ Leader movement needs LEADER_MOVEMENT_BROKERS of 2 or more"
+        return 1
+    fi
+    echo "👑 Leader movement: $brokers brokers behind one gateway"
+    echo "----------------------------------------"
+
+    prepare_benchmark_run $client_ver $server_ver
+    generate_scaling_compose "$brokers" "$compose_file"
+    start_benchmark_stack "$SCALING_COMPOSE_ARGS" || return 1
+
+    run_benchmark_mvn testLeaderMovementUnderLoad > "$log_file" 2>&1
+    local rc=$?
+    grep -E "Move [0-9]+|Baseline:" "$log_file"
+    store_benchmark_results "$RESULTS_DIR/benchmark-results" || rc=1
+
+    docker-compose $SCALING_COMPOSE_ARGS down
+    return $rc
+}
+
+# Run the same TLS workload through port-based and SNI broker identification with 1, 3
+# and 5 brokers (override with IDENTIFICATION_BROKER_COUNTS) and summarise how connection
+# setup and throughput scale for each strategy.
+run_broker_identification_test() {
+    local client_ver=$1
+    local server_ver=$2
+    local counts=(${IDENTIFICATION_BROKER_COUNTS:-1 3 5})
+    local summary="$RESULTS_DIR/broker_identification.txt"
+    local identification_rc=0
+    local brokers
+
+    if ! version_ge $server_ver "8.0.0"; then
+        echo "❌ Broker identification uses KRaft compose files and needs server version 8.0.0 or later"
+        return 1
+    fi
+    prepare_benchmark_run $client_ver $server_ver
+
+    printf "%-8s %-10s %-22s %-14s %-12s %s\n" "Brokers" "Strategy" "Connect all p99 (ms)" "Produce MB/s" \
+        "p99 (ms)" "Gateway cores" > "$summary"
+    for brokers in "${counts[@]}"; do
+        local compose_file="$RESULTS_DIR/docker-compose-identification-${brokers}.yml"
+        local log_file="$RESULTS_DIR/broker_identification_${brokers}.log"
+        echo "🧭 Broker identification: $brokers broker(s), port vs SNI"
+        generate_scaling_compose "$brokers" "$compose_file" tls
+
+        if ! start_benchmark_stack "$SCALING_COMPOSE_ARGS"; then
+            echo "❌ Failed to start $brokers-broker environment"
+            return 1
+        fi
+        run_benchmark_mvn testBrokerIdentification > "$log_file" 2>&1 \
+            || { echo "⚠️ Identification run with $brokers broker(s) failed, see $log_file"; identification_rc=1; }
+        store_benchmark_results "$RESULTS_DIR/benchmark-results" || identification_rc=1
+        docker-compose $SCALING_COMPOSE_ARGS down
+
+        grep -o "Identification result: .*" "$log_file" | while read -r _ _ strategy _ connect produce p99 cores; do
+            printf "%-8s %-10s %-22s %-14s %-12s %s\n" "$brokers" "${strategy#strategy=}" \
+                "$(echo "${connect#connect_all_p99=}" | sed 's/ms$//')" "$(echo "${produce#produce=}" | sed 's/MB\/s$//')" \
+                "$(echo "${p99#p99=}" | sed 's/ms$//')" "${cores#cores=}" >> "$summary"
+        done
+    done
+
+    echo ""
+    echo "📊 BROKER IDENTIFICATION SUMMARY:"
+    cat "$summary"
+    return $identification_rc
+}
+
 # Function to generate final compatibility report using enhanced Python parser
 generate_final_report() {
     echo "Generating compatibility summary..."
@@ -420,6 +1010,86 @@ generate_final_report() {
 # =============================================================================
 
 
+# Number of matrix cells to run at once. MATRIX_PARALLELISM wins if set; otherwise
+# it is derived from cores and available memory, budgeting CELL_CPUS cores and
+# CELL_MEMORY_MB of memory per cell (each cell runs a broker, a gateway and a
+# Maven client container).
+matrix_parallelism() {
+    if [ -n "$MATRIX_PARALLELISM" ]; then
+        echo "$MATRIX_PARALLELISM"
+        return
+    fi
+    local cores mem_mb
+    cores=$(nproc 2>/dev/null || sysctl -n hw.ncpu 2>/dev/null || echo 1)
+    if [ -r /proc/meminfo ]; then
+        mem_mb=$(awk '/MemAvailable/ { print int($2 / 1024) }' /proc/meminfo)
+    else
+        mem_mb=$(( $(sysctl -n hw.memsize 2>/dev/null || echo 0) / 1024 / 1024 ))
+    fi
+    local by_cpu=$(( cores / ${CELL_CPUS:-2} ))
+    local by_mem=$(( ${mem_mb:-0} / ${CELL_MEMORY_MB:-3072} ))
+    local limit=$(( by_cpu < by_mem ? by_cpu : by_mem ))
+    echo $(( limit < 1 ? 1 : limit ))
+}
+
+# Run one matrix cell in its own compose project with its own host ports.
+# Cell N shifts every published port by N*10, which keeps the port sets of
+# concurrent cells (9092-9095, 9190, 19092-19094) disjoint.
+run_matrix_cell() {
+    local cell=$1
+    local client_ver=$2
+    local server_ver=$3
+    local offset=$(( cell * 10 ))
+    local port
+
+    export COMPOSE_PROJECT_NAME="vct-$(echo "java${client_ver}-server${server_ver}" | tr -c 'a-z0-9\n' '-')"
+    for port in 9092 9093 9094 9095 9190 19092 19093 19094; do
+        export HOST_PORT_${port}=$(( port + offset ))
+    done
+    GATEWAY_METRICS="http://localhost:${HOST_PORT_9190}/metrics"
+    run_compatibility_test $client_ver $server_ver
+}
+
+# Run the matrix with up to $1 cells at a time. Each cell logs to its own file;
+# results land in the shared $RESULTS_DIR because every file is named by test ID.
+run_matrix_parallel() {
+    local limit=$1
+    local cell=0
+    local overall_failed=0
+    local pids=()
+    local ids=()
+
+    # Certificates are shared by every cell, so create them once up front
+    if [ ! -d "ssl" ] || [ ! -f "ssl/kafka.keystore.jks" ]; then
+        generate_ssl_certificates
+    fi
+
+    for client_ver in "${CLIENTS[@]}"; do
+        for server_ver in "${SERVERS[@]}"; do
+            while [ "$(jobs -rp | wc -l)" -ge "$limit" ]; do
+                sleep 2
+            done
+            cell=$((cell + 1))
+            local test_id="java${client_ver}_server${server_ver}"
+            echo "[$cell/$total_combinations] Starting $test_id (log: $RESULTS_DIR/${test_id}.log)"
+            ( run_matrix_cell $cell $client_ver $server_ver > "$RESULTS_DIR/${test_id}.log" 2>&1 ) &
+            pids+=($!)
+            ids+=("$test_id")
+        done
+    done
+
+    local i
+    for i in "${!pids[@]}"; do
+        if wait "${pids[$i]}"; then
+            echo "✅ ${ids[$i]} completed"
+        else
+            echo "❌ ${ids[$i]} failed (see $RESULTS_DIR/${ids[$i]}.log)"
+            overall_failed=1
+        fi
+    done
+    return $overall_failed
+}
+
 # Main execution
 main() {
     client_count=${#CLIENTS[@]}
@@ -439,17 +1109,24 @@ main() {
     # start timer
     CURRENT_TIME=$(date +%s)
 
-    # Run all combinations
-    for client_ver in "${CLIENTS[@]}"; do
-        for server_ver in "${SERVERS[@]}"; do
-            test_count=$((test_count + 1))
-            echo "[$test_count/$total_tests] Testing combination..."
-            run_compatibility_test $client_ver $server_ver || overall_failed=1
+    local parallelism
+    parallelism=$(matrix_parallelism)
+    if [ "$parallelism" -gt 1 ]; then
+        echo "⚡ Running up to $parallelism combinations in parallel (set MATRIX_PARALLELISM to override)"
+        run_matrix_parallel "$parallelism" || overall_failed=1
+    else
+        # Run all combinations
+        for client_ver in "${CLIENTS[@]}"; do
+            for server_ver in "${SERVERS[@]}"; do
+                test_count=$((test_count + 1))
+                echo "[$test_count/$total_tests] Testing combination..."
+                run_compatibility_test $client_ver $server_ver || overall_failed=1
 
-            # Brief pause between tests
-            sleep 3
+                # Brief pause between tests
+                sleep 3
+            done
         done
-    done
+    fi
 
     # end timer
     END_TIME=$(date +%s)
@@ -482,6 +1159,121 @@ case "$1" in
         deactivate
         exit $SINGLE_RC
         ;;
+    "--restart-recovery")
+        if [ $# -ne 3 ]; then
+            echo "Usage: $0 --restart-recovery <client_version> <server_version>"
+            exit 1
+        fi
+        run_restart_recovery_test $2 $3
+        exit $?
+        ;;
+    "--broker-scaling")
+        if [ $# -ne 3 ]; then
+            echo "Usage: $0 --broker-scaling <client_version> <server_version>"
+            exit 1
+        fi
+        run_broker_scaling_test $2 $3
+        exit $?
+        ;;
+    "--leader-movement")
+        if [ $# -ne 3 ]; then
+            echo "Usage: $0 --leader-movement <client_version> <server_version>"
+            exit 1
+        fi
+        run_leader_movement_test $2 $3
+        exit $?
+        ;;
+    "--broker-identification")
+        if [ $# -ne 3 ]; then
+            echo "Usage: $0 --broker-identification <client_version> <server_version>"
+            exit 1
+        fi
+        run_broker_identification_test $2 $3
+        exit $?
+        ;;
+    "--startup")
+        if [ $# -ne 3 ]; then
+            echo "Usage: $0 --startup <client_version> <server_version>"
+            exit 1
+        fi
+        run_startup_test $2 $3
+        exit $?
+        ;;
+    "--workload")
+        if [ $# -ne 4 ]; then
+            echo "Usage: $0 --workload <client_version> <server_version> <workload_file_or_directory>"
+            exit 1
+        fi
+        run_workload_test $2 $3 "$4"
+        exit $?
+        ;;
+    "--io-uring")
+        if [ $# -lt 3 ] || [ $# -gt 4 ]; then
+            echo "Usage: $0 --io-uring <client_version> <server_version> [workload_file_or_directory]"
+            exit 1
+        fi
+        run_io_uring_test $2 $3 "$4"
+        exit $?
+        ;;
+    "--auth-swap")
+        if [ $# -ne 3 ]; then
+            echo "Usage: $0 --auth-swap <client_version> <server_version>"
+            exit 1
+        fi
+        run_auth_stack_test $2 $3 testAuthSwap authswap
+        exit $?
+        ;;
+    "--reauth")
+        if [ $# -ne 3 ]; then
+            echo "Usage: $0 --reauth <client_version> <server_version>"
+            exit 1
+        fi
+        # Short re-authentication intervals on the broker (passthrough) and the gateway (reauth route)
+        export BROKER_REAUTH_MS=${BROKER_REAUTH_MS:-10000}
+        export GATEWAY_REAUTH_MS=${GATEWAY_REAUTH_MS:-10000}
+        run_auth_stack_test $2 $3 testReauthLatency reauth
+        exit $?
+        ;;
+    "--client-fleet")
+        if [ $# -ne 3 ]; then
+            echo "Usage: $0 --client-fleet <client_version> <server_version>"
+            exit 1
+        fi
+        run_client_fleet_test $2 $3
+        exit $?
+        ;;
+    "--schema-validation")
+        if [ $# -ne 3 ]; then
+            echo "Usage: $0 --schema-validation <client_version> <server_version>"
+            exit 1
+        fi
+        run_schema_registry_test $2 $3 testSchemaValidation schema_validation
+        exit $?
+        ;;
+    "--encryption")
+        if [ $# -ne 3 ]; then
+            echo "Usage: $0 --encryption <client_version> <server_version>"
+            exit 1
+        fi
+        run_schema_registry_test $2 $3 testEncryption encryption
+        exit $?
+        ;;
+    "--registry-lookups")
+        if [ $# -ne 3 ]; then
+            echo "Usage: $0 --registry-lookups <client_version> <server_version>"
+            exit 1
+        fi
+        run_schema_registry_test $2 $3 testSchemaRegistryLookups registry_lookups
+        exit $?
+        ;;
+    "--compare-benchmarks")
+        if [ $# -ne 2 ]; then
+            echo "Usage: $0 --compare-benchmarks <benchmark_results_directory>"
+            exit 1
+        fi
+        python3 benchmark_store.py --db "${BENCHMARK_DB:-benchmark-results.db}" check "$2"
+        exit $?
+        ;;
     "--parse")
         if [ $# -ne 2 ]; then
             echo "Usage: $0 --parse <results_directory>"
@@ -500,6 +1292,20 @@ case "$1" in
         echo "Usage:"
         echo "  $0 --run                    # Run all 16 test combinations"
         echo "  $0 --single 7.6.0 7.8.0     # Test single combination"
+        echo "  $0 --restart-recovery 7.9.0 7.9.0  # Measure client recovery across a gateway restart"
+        echo "  $0 --broker-scaling 8.0.0 8.0.0    # Throughput with 1, 3 and 5 brokers behind one gateway"
+        echo "  $0 --leader-movement 8.0.0 8.0.0  # Leader moves under load with 3 brokers behind one gateway"
+        echo "  $0 --broker-identification 8.0.0 8.0.0  # Port-based vs SNI routing over TLS, 1/3/5 brokers"
+        echo "  $0 --startup 8.0.0 8.0.0          # Time to /livez, first Metadata and stable p99 after a gateway start"
+        echo "  $0 --workload 7.9.0 7.9.0 src/test/resources/workloads  # Run JSON workload files"
+        echo "  $0 --io-uring 8.0.0 8.0.0         # Same workloads with the gateway on epoll, then io_uring"
+        echo "  $0 --auth-swap 8.0.0 8.0.0        # Passthrough vs SCRAM-swap vs mTLS-swap cost"
+        echo "  $0 --reauth 8.0.0 8.0.0           # Latency spikes around SASL re-authentication"
+        echo "  $0 --client-fleet 8.0.0 8.0.0     # 1100 idle clients on JDK 21 virtual threads, gateway cost per client"
+        echo "  $0 --schema-validation 8.0.0 8.0.0  # Produce cost of each schema validation level and format"
+        echo "  $0 --encryption 8.0.0 8.0.0       # Field and payload encryption cost against plain records"
+        echo "  $0 --registry-lookups 8.0.0 8.0.0  # Schema Registry calls per record, cold, warm and slow"
+        echo "  $0 --compare-benchmarks dir # Store benchmark JSON results and check for regressions"
         echo "  $0 --parse results_dir      # Parse existing results"
         echo "  $0 --setup-env              # Set up Python environment only"
         echo ""